@@ -7,6 +7,7 @@ module org.example.hrs {
     requires org.kordamp.ikonli.javafx;
     requires org.kordamp.bootstrapfx.core;
     requires java.sql;
+    requires com.zaxxer.hikari;
     requires java.desktop;
 
     exports org.example.hrs.src;
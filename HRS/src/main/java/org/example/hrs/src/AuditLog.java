@@ -0,0 +1,497 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Audit trail of every hotel operation: who did what, with which arguments, and whether
+ * it succeeded.
+ *
+ * Records are fixed-size binary slots in a preallocated, memory-mapped ring file, so
+ * writing one is a handful of stores into mapped memory: no locks, no allocation and no
+ * system call. A writer claims a sequence number with one atomic increment, which selects
+ * its slot. It takes the slot by swapping the slot's commit word to a busy marker, fills in
+ * the record and then publishes the sequence number in the commit word with release
+ * semantics. A writer that finds the slot busy (only possible when the ring wraps around
+ * while it is being written) waits for it, and one that finds a newer record there drops
+ * its own. A reader accepts a slot only if the commit word holds the same sequence before
+ * and after it reads the record, so a record that is being written or was overwritten
+ * meanwhile is skipped rather than torn. When the ring is full the oldest records are overwritten. The operating system writes
+ * the mapped pages back to the file, so records survive a crash of the application.
+ *
+ * File layout, little-endian: a 64-byte header (magic, version, slot size, slot count)
+ * followed by the slots. Slot layout:
+ * - 0  commit word: sequence number + 1; negative while being written; 0 if never written
+ * - 8  time in epoch milliseconds
+ * - 16 property ID, 20 room number, 24 check-in and 28 check-out epoch days
+ * - 32 operation, 33 outcome, 34-36 lengths of the three text fields
+ * - 40 actor (16 bytes), 56 booking ID (32 bytes), 88 detail (40 bytes)
+ * Text fields are Latin-1 and cut off at their length.
+ *
+ * Use {@link AuditLogReader} to decode a log file.
+ */
+public class AuditLog {
+
+    /**
+     * Audited operations.
+     */
+    public enum Operation {
+        LOGIN, BOOK, CANCEL, PAY, CHECK_IN, CHECK_OUT, NO_SHOW, WAITLIST, ASSIGN, REOPTIMIZE, ROOM_SERVICE, EXPORT;
+
+        private static final Operation[] BY_CODE = values();
+
+        static Operation fromCode(int code) {
+            return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        }
+    }
+
+    /**
+     * A decoded record.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final long timeMillis;
+        private final String actor;
+        private final Operation operation;
+        private final boolean success;
+        private final int propertyId;
+        private final String bookingId;
+        private final int roomNumber;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final String detail;
+
+        Entry(long sequence, long timeMillis, String actor, Operation operation, boolean success, int propertyId,
+              String bookingId, int roomNumber, LocalDate checkIn, LocalDate checkOut, String detail) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.actor = actor;
+            this.operation = operation;
+            this.success = success;
+            this.propertyId = propertyId;
+            this.bookingId = bookingId;
+            this.roomNumber = roomNumber;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.detail = detail;
+        }
+
+        /**
+         * Gets the record's position in the log.
+         *
+         * @return Sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets when the operation happened.
+         *
+         * @return Time of the operation.
+         */
+        public Instant getTime() {
+            return Instant.ofEpochMilli(timeMillis);
+        }
+
+        /**
+         * Gets who performed the operation.
+         *
+         * @return Actor name, or empty if nobody was logged in.
+         */
+        public String getActor() {
+            return actor;
+        }
+
+        /**
+         * Gets what was done.
+         *
+         * @return The operation.
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * Tells whether the operation succeeded.
+         *
+         * @return true if it succeeded.
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Gets the property affected.
+         *
+         * @return Property ID.
+         */
+        public int getPropertyId() {
+            return propertyId;
+        }
+
+        /**
+         * Gets the booking affected.
+         *
+         * @return Booking ID, or empty.
+         */
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        /**
+         * Gets the room affected.
+         *
+         * @return Room number, or 0.
+         */
+        public int getRoomNumber() {
+            return roomNumber;
+        }
+
+        /**
+         * Gets the start of the stay.
+         *
+         * @return Check-in date, or null.
+         */
+        public LocalDate getCheckIn() {
+            return checkIn;
+        }
+
+        /**
+         * Gets the end of the stay.
+         *
+         * @return Check-out date, or null.
+         */
+        public LocalDate getCheckOut() {
+            return checkOut;
+        }
+
+        /**
+         * Gets the other arguments.
+         *
+         * @return Detail text, or empty.
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(sequence).append(' ').append(getTime()).append(' ').append(actor.isEmpty() ? "-" : actor)
+                    .append(' ').append(operation).append(success ? " OK" : " FAILED")
+                    .append(" property=").append(propertyId);
+            if (!bookingId.isEmpty()) {
+                text.append(" booking=").append(bookingId);
+            }
+            if (roomNumber != 0) {
+                text.append(" room=").append(roomNumber);
+            }
+            if (checkIn != null && checkOut != null) {
+                text.append(" stay=").append(checkIn).append("..").append(checkOut);
+            } else if (checkIn != null) {
+                text.append(" from=").append(checkIn);
+            }
+            if (!detail.isEmpty()) {
+                text.append(" [").append(detail).append(']');
+            }
+            return text.toString();
+        }
+    }
+
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 128;
+    private static final long MAGIC = 0x3154494455415352L; // "RSAUDIT1"
+    private static final int VERSION = 1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int ACTOR_OFFSET = 40;
+    private static final int ACTOR_SIZE = 16;
+    private static final int BOOKING_OFFSET = 56;
+    private static final int BOOKING_SIZE = 32;
+    private static final int DETAIL_OFFSET = 88;
+    private static final int DETAIL_SIZE = 40;
+
+    // Ordered access to the commit word of a slot in the mapped buffer
+    private static final VarHandle COMMIT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Who is at the desk; set at login
+    private static volatile String actor = "";
+
+    private final MappedByteBuffer buffer;
+    private final int mask;
+    private final AtomicLong nextSequence;
+
+    /**
+     * Opens a log file, creating it with the given number of slots if needed. An existing
+     * log keeps its own size and continues after its last record.
+     *
+     * @param file  The log file.
+     * @param slots Number of records kept; rounded up to a power of two.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public AuditLog(Path file, int slots) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = readCapacity(channel);
+            boolean fresh = capacity == 0;
+            if (fresh) {
+                capacity = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+            this.mask = capacity - 1;
+            if (fresh) {
+                buffer.putLong(0, MAGIC);
+                buffer.putInt(8, VERSION);
+                buffer.putInt(12, SLOT_SIZE);
+                buffer.putInt(16, capacity);
+            }
+            this.nextSequence = new AtomicLong(fresh ? 0 : lastSequence(buffer, capacity) + 1);
+        }
+    }
+
+    /**
+     * Gets the log shared by this process. Its file is set with {@code hrs.audit.file}
+     * (default hrs-audit.log) and its size with {@code hrs.audit.slots} (default 65536);
+     * {@code hrs.audit.file=none} turns auditing off.
+     *
+     * @return The process-wide log, or null if auditing is off or the file cannot be opened.
+     */
+    public static AuditLog getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    // Opened on first use, so processes that never audit create no file
+    private static class DefaultHolder {
+        private static final AuditLog INSTANCE = openDefault();
+    }
+
+    private static AuditLog openDefault() {
+        String file = System.getProperty("hrs.audit.file", "hrs-audit.log");
+        if (file.equals("none")) {
+            return null;
+        }
+        try {
+            return new AuditLog(Path.of(file), Integer.getInteger("hrs.audit.slots", 1 << 16));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error opening audit log " + file + ", auditing is off: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sets who is performing operations from now on, e.g. the role of the logged-in user.
+     *
+     * @param name Actor name; cut to 16 characters.
+     */
+    public static void setActor(String name) {
+        actor = name == null ? "" : name;
+    }
+
+    /**
+     * Records an operation in the process-wide log, if auditing is on.
+     *
+     * @param operation  What was done.
+     * @param success    Whether it succeeded.
+     * @param propertyId Property affected.
+     * @param bookingId  Booking affected, or null.
+     * @param roomNumber Room affected, or 0.
+     * @param checkIn    Start of the stay, or null.
+     * @param checkOut   End of the stay, or null.
+     * @param detail     Other arguments, e.g. the payment method; cut to 40 characters.
+     */
+    public static void log(Operation operation, boolean success, int propertyId, String bookingId,
+                           int roomNumber, LocalDate checkIn, LocalDate checkOut, String detail) {
+        AuditLog log = getDefault();
+        if (log != null) {
+            log.record(operation, success, propertyId, bookingId, roomNumber, checkIn, checkOut, detail);
+        }
+    }
+
+    /**
+     * Appends a record, overwriting the oldest one if the ring is full. Safe to call
+     * from any number of threads.
+     *
+     * @param operation  What was done.
+     * @param success    Whether it succeeded.
+     * @param propertyId Property affected.
+     * @param bookingId  Booking affected, or null.
+     * @param roomNumber Room affected, or 0.
+     * @param checkIn    Start of the stay, or null.
+     * @param checkOut   End of the stay, or null.
+     * @param detail     Other arguments; cut to 40 characters.
+     * @return The record's sequence number.
+     */
+    public long record(Operation operation, boolean success, int propertyId, String bookingId,
+                       int roomNumber, LocalDate checkIn, LocalDate checkOut, String detail) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = HEADER_SIZE + (int) (sequence & mask) * SLOT_SIZE;
+
+        while (true) {
+            long current = (long) COMMIT.getVolatile(buffer, slot);
+            if (current > sequence + 1) {
+                return sequence; // Lapped: a newer record already took the slot
+            }
+            if (current >= 0 && COMMIT.compareAndSet(buffer, slot, current, -(sequence + 1))) {
+                break;
+            }
+            Thread.onSpinWait(); // Another writer is finishing a record in this slot
+        }
+        buffer.putLong(slot + 8, System.currentTimeMillis());
+        buffer.putInt(slot + 16, propertyId);
+        buffer.putInt(slot + 20, roomNumber);
+        buffer.putInt(slot + 24, checkIn == null ? NO_DATE : (int) checkIn.toEpochDay());
+        buffer.putInt(slot + 28, checkOut == null ? NO_DATE : (int) checkOut.toEpochDay());
+        buffer.put(slot + 32, (byte) operation.ordinal());
+        buffer.put(slot + 33, (byte) (success ? 1 : 0));
+        buffer.put(slot + 34, putText(slot + ACTOR_OFFSET, ACTOR_SIZE, actor));
+        buffer.put(slot + 35, putText(slot + BOOKING_OFFSET, BOOKING_SIZE, bookingId));
+        buffer.put(slot + 36, putText(slot + DETAIL_OFFSET, DETAIL_SIZE, detail));
+        COMMIT.setRelease(buffer, slot, sequence + 1);
+        return sequence;
+    }
+
+    /**
+     * Gets the sequence number the next record will get.
+     *
+     * @return The next sequence number.
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Writes the mapped records back to the file now.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Reads every complete record still in a log, oldest first.
+     *
+     * @param file The log file.
+     * @return The records.
+     * @throws IOException If the file cannot be read or is not an audit log.
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int capacity = readCapacity(channel);
+            if (capacity == 0) {
+                throw new IOException(file + " is not an audit log");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < capacity; i++) {
+                Entry entry = readSlot(buffer, HEADER_SIZE + i * SLOT_SIZE);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparingLong(Entry::getSequence));
+            return entries;
+        }
+    }
+
+    /**
+     * Decodes one slot, or returns null if it is empty or changed while being read.
+     */
+    private static Entry readSlot(ByteBuffer buffer, int slot) {
+        long commit = (long) COMMIT.getAcquire(buffer, slot);
+        if (commit <= 0) {
+            return null;
+        }
+        long time = buffer.getLong(slot + 8);
+        int propertyId = buffer.getInt(slot + 16);
+        int roomNumber = buffer.getInt(slot + 20);
+        int checkIn = buffer.getInt(slot + 24);
+        int checkOut = buffer.getInt(slot + 28);
+        Operation operation = Operation.fromCode(buffer.get(slot + 32));
+        boolean success = buffer.get(slot + 33) != 0;
+        String actorName = getText(buffer, slot + ACTOR_OFFSET, buffer.get(slot + 34), ACTOR_SIZE);
+        String bookingId = getText(buffer, slot + BOOKING_OFFSET, buffer.get(slot + 35), BOOKING_SIZE);
+        String detail = getText(buffer, slot + DETAIL_OFFSET, buffer.get(slot + 36), DETAIL_SIZE);
+        VarHandle.loadLoadFence();
+        if ((long) COMMIT.getOpaque(buffer, slot) != commit || operation == null) {
+            return null;
+        }
+        return new Entry(commit - 1, time, actorName, operation, success, propertyId, bookingId, roomNumber,
+                checkIn == NO_DATE ? null : LocalDate.ofEpochDay(checkIn),
+                checkOut == NO_DATE ? null : LocalDate.ofEpochDay(checkOut), detail);
+    }
+
+    /**
+     * Writes text as Latin-1 without allocating; other characters become '?'.
+     *
+     * @return Number of bytes written.
+     */
+    private byte putText(int offset, int size, String text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = Math.min(text.length(), size);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            buffer.put(offset + i, c < 256 ? (byte) c : (byte) '?');
+        }
+        return (byte) length;
+    }
+
+    private static String getText(ByteBuffer buffer, int offset, int length, int size) {
+        char[] chars = new char[Math.max(0, Math.min(length, size))];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads the slot count from an existing log's header.
+     *
+     * @return The slot count, or 0 if the file is empty or not an audit log.
+     */
+    private static int readCapacity(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        int capacity = header.getInt(16);
+        boolean valid = header.getLong(0) == MAGIC && header.getInt(8) == VERSION && header.getInt(12) == SLOT_SIZE
+                && capacity > 0 && Integer.bitCount(capacity) == 1
+                && channel.size() >= HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        return valid ? capacity : 0;
+    }
+
+    /**
+     * Finds the highest committed sequence number in a log, or -1 if it has none.
+     * Records left half-written by a crash are cleared.
+     */
+    private static long lastSequence(ByteBuffer buffer, int capacity) {
+        long last = -1;
+        for (int i = 0; i < capacity; i++) {
+            int slot = HEADER_SIZE + i * SLOT_SIZE;
+            long commit = buffer.getLong(slot);
+            if (commit < 0) {
+                buffer.putLong(slot, 0);
+            }
+            last = Math.max(last, commit - 1);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the records of an {@link AuditLog} file, oldest first, one line per operation.
+ *
+ * Usage: {@code java org.example.hrs.src.AuditLogReader key=value ...}
+ * - file=hrs-audit.log   the log to read
+ * - last=N               only the newest N matching records
+ * - op=BOOK              only one operation
+ * - booking=ID, actor=NAME, property=ID
+ * - failed=true          only operations that failed
+ */
+public class AuditLogReader {
+
+    /**
+     * Decodes a log file and prints the matching records.
+     *
+     * @param args key=value options, see the class description.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Ignoring argument without key=value: " + arg);
+                continue;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        Path file = Path.of(options.getOrDefault("file", "hrs-audit.log"));
+        List<AuditLog.Entry> entries;
+        try {
+            entries = AuditLog.read(file);
+        } catch (IOException e) {
+            System.err.println("Error reading audit log " + file + ": " + e.getMessage());
+            return;
+        }
+
+        String op = options.get("op");
+        String booking = options.get("booking");
+        String actor = options.get("actor");
+        String property = options.get("property");
+        boolean failedOnly = Boolean.parseBoolean(options.getOrDefault("failed", "false"));
+        entries.removeIf(entry -> (op != null && !entry.getOperation().name().equalsIgnoreCase(op))
+                || (booking != null && !entry.getBookingId().equals(booking))
+                || (actor != null && !entry.getActor().equalsIgnoreCase(actor))
+                || (property != null && entry.getPropertyId() != Integer.parseInt(property))
+                || (failedOnly && entry.isSuccess()));
+
+        int last = Integer.parseInt(options.getOrDefault("last", String.valueOf(entries.size())));
+        for (AuditLog.Entry entry : entries.subList(Math.max(0, entries.size() - last), entries.size())) {
+            System.out.println(entry);
+        }
+    }
+}
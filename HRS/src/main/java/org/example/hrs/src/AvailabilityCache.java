@@ -0,0 +1,244 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cache of availability search results, keyed by stay dates and room type.
+ *
+ * A cached result lists the rooms that no active booking holds during the stay.
+ * Each result is also indexed by check-in day, so a booking change only drops results
+ * for the same room type (or any type) whose stay overlaps the changed nights:
+ * - cached stays that check in before the change ends
+ * - and check in no earlier than the longest cached stay before the change starts
+ * - filtered to those that check out after the change starts
+ * Room changes clear the whole cache. The least recently used results are evicted
+ * beyond a fixed size.
+ */
+public class AvailabilityCache implements HotelListener {
+
+    /**
+     * Cache key: stay dates plus room type, null meaning any type.
+     */
+    private static final class Key {
+        private final long checkIn;
+        private final long checkOut;
+        private final Room.roomType type;
+
+        Key(long checkIn, long checkOut, Room.roomType type) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return checkIn == other.checkIn && checkOut == other.checkOut && type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(checkIn, checkOut, type);
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, List<Room>> entries;
+
+    // check-in epoch day -> keys of cached results with that check-in
+    private final NavigableMap<Long, Set<Key>> byCheckIn = new TreeMap<>();
+    private long longestStay;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxEntries Maximum number of cached results.
+     */
+    public AvailabilityCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Looks up a cached result.
+     *
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @param type     Room type, or null for any type.
+     * @return Rooms not booked during the stay, or null if not cached.
+     */
+    public synchronized List<Room> get(LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+        List<Room> rooms = entries.get(new Key(checkIn.toEpochDay(), checkOut.toEpochDay(), type));
+        if (rooms == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return rooms;
+    }
+
+    /**
+     * Stores a result.
+     *
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @param type     Room type, or null for any type.
+     * @param rooms    Rooms not booked during the stay.
+     */
+    public synchronized void put(LocalDate checkIn, LocalDate checkOut, Room.roomType type, List<Room> rooms) {
+        Key key = new Key(checkIn.toEpochDay(), checkOut.toEpochDay(), type);
+        if (entries.put(key, Collections.unmodifiableList(new ArrayList<>(rooms))) == null) {
+            byCheckIn.computeIfAbsent(key.checkIn, d -> new HashSet<>()).add(key);
+            longestStay = Math.max(longestStay, key.checkOut - key.checkIn);
+        }
+
+        if (entries.size() > maxEntries) {
+            Iterator<Key> eldest = entries.keySet().iterator();
+            Key evicted = eldest.next();
+            eldest.remove();
+            unindex(evicted);
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops the results that a change to one room type's bookings on the given nights can affect.
+     *
+     * @param type     Room type whose bookings changed.
+     * @param from     First changed night.
+     * @param to       Day after the last changed night.
+     */
+    public synchronized void invalidate(Room.roomType type, LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        List<Key> affected = new ArrayList<>();
+        for (Set<Key> keys : byCheckIn.subMap(start - longestStay, false, end, false).values()) {
+            for (Key key : keys) {
+                if (key.checkOut > start && (key.type == null || key.type == type)) {
+                    affected.add(key);
+                }
+            }
+        }
+        for (Key key : affected) {
+            entries.remove(key);
+            unindex(key);
+        }
+        invalidations += affected.size();
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+        byCheckIn.clear();
+        longestStay = 0;
+    }
+
+    /**
+     * Keeps the cache in step with the hotel's changes.
+     */
+    @Override
+    public void onEvent(HotelEvent event) {
+        switch (event.getType()) {
+            case BOOKED:
+            case CANCELLED:
+            case REASSIGNED:
+            case RELEASED:
+                invalidate(event.getRoom().getType(), event.getCheckIn(), event.getCheckOut());
+                break;
+            case ROOM_UPDATED:
+                clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return Hit count.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to be computed.
+     *
+     * @return Miss count.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results dropped because of changes.
+     *
+     * @return Invalidation count.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Gets the number of results dropped to stay within the size limit.
+     *
+     * @return Eviction count.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return Number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Summarises the counters, e.g. for a log line.
+     *
+     * @return Hit rate, hits, misses, invalidations, evictions and size.
+     */
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("availability cache: hit rate %.1f%% (%d hits, %d misses), %d invalidated, %d evicted, %d cached",
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups, hits, misses, invalidations, evictions, entries.size());
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = byCheckIn.get(key.checkIn);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                byCheckIn.remove(key.checkIn);
+            }
+        }
+    }
+}
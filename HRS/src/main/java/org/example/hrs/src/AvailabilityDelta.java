@@ -0,0 +1,110 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+
+/**
+ * Change in the number of free rooms of one type on one night, as published by
+ * {@link AvailabilityPublisher}. Deltas are numbered; a subscriber that remembers the
+ * last sequence it handled can resume from the next one.
+ *
+ * A reset delta carries no type or night: the property's rooms changed, e.g. one went
+ * out of service, and every count the subscriber holds has to be re-read.
+ */
+public class AvailabilityDelta {
+
+    private final long sequence;
+    private final int propertyId;
+    private final Room.roomType type;
+    private final LocalDate night;
+    private final int change;
+
+    /**
+     * Constructs a delta.
+     *
+     * @param sequence   Position in the publisher's stream.
+     * @param propertyId Property the change happened in.
+     * @param type       Room type affected.
+     * @param night      The night affected.
+     * @param change     Change in free rooms: -1 when a room is taken, +1 when freed.
+     */
+    public AvailabilityDelta(long sequence, int propertyId, Room.roomType type, LocalDate night, int change) {
+        this.sequence = sequence;
+        this.propertyId = propertyId;
+        this.type = type;
+        this.night = night;
+        this.change = change;
+    }
+
+    /**
+     * Creates a reset delta.
+     *
+     * @param sequence   Position in the publisher's stream.
+     * @param propertyId Property whose rooms changed.
+     * @return The delta.
+     */
+    public static AvailabilityDelta reset(long sequence, int propertyId) {
+        return new AvailabilityDelta(sequence, propertyId, null, null, 0);
+    }
+
+    /**
+     * Tells whether all counts of the property have to be re-read rather than adjusted.
+     *
+     * @return true for a reset delta.
+     */
+    public boolean isReset() {
+        return night == null;
+    }
+
+    /**
+     * Gets the position of the delta in the stream.
+     *
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the property ID.
+     *
+     * @return The property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Gets the room type affected.
+     *
+     * @return The room type, or null for a reset.
+     */
+    public Room.roomType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the night affected.
+     *
+     * @return The date of the night, or null for a reset.
+     */
+    public LocalDate getNight() {
+        return night;
+    }
+
+    /**
+     * Gets the change in free rooms.
+     *
+     * @return -1 when a room is taken, +1 when freed, 0 for a reset.
+     */
+    public int getChange() {
+        return change;
+    }
+
+    @Override
+    public String toString() {
+        if (isReset()) {
+            return "#" + sequence + " reset";
+        }
+        return "#" + sequence + " " + type + " " + night + " " + (change > 0 ? "+" : "") + change;
+    }
+}
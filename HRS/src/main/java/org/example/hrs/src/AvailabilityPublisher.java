@@ -0,0 +1,257 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Streams a hotel's availability changes, one {@link AvailabilityDelta} per room type and
+ * night, to any number of {@link Flow.Subscriber}s.
+ *
+ * Deltas go into a single bounded ring shared by all subscribers, so publishing never
+ * waits for anyone: a booking only appends and signals. Each subscriber reads the ring
+ * at its own position and pace, as far as its requested demand allows, on the publisher's
+ * executor. A subscriber that falls so far behind that the ring has overwritten its next
+ * delta receives onError and has to re-read the current availability and subscribe again.
+ *
+ * A room going in or out of service publishes a reset delta rather than per-night
+ * changes; subscribers re-read the property's availability when they see one.
+ *
+ * Subscribers can resume from a sequence number, e.g. after a reconnect, as long as
+ * that delta is still in the ring.
+ */
+public class AvailabilityPublisher implements Flow.Publisher<AvailabilityDelta>, HotelListener {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int propertyId;
+    private final AvailabilityDelta[] ring;
+    private final int mask;
+    private final Executor executor;
+    private final List<RingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Sequence the next delta will get; everything below it is published
+    private volatile long nextSequence;
+
+    /**
+     * Constructs a publisher delivering on the common fork-join pool.
+     *
+     * @param propertyId Property whose availability is published.
+     * @param capacity   Number of deltas kept for slow or resuming subscribers; rounded up to a power of two.
+     */
+    public AvailabilityPublisher(int propertyId, int capacity) {
+        this(propertyId, capacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param propertyId Property whose availability is published.
+     * @param capacity   Number of deltas kept for slow or resuming subscribers; rounded up to a power of two.
+     * @param executor   Executor on which subscribers are called.
+     */
+    public AvailabilityPublisher(int propertyId, int capacity, Executor executor) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.propertyId = propertyId;
+        this.ring = new AvailabilityDelta[size];
+        this.mask = size - 1;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes to deltas published from now on.
+     *
+     * @param subscriber The subscriber.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super AvailabilityDelta> subscriber) {
+        subscribe(subscriber, nextSequence);
+    }
+
+    /**
+     * Subscribes starting at a given sequence number. If that delta is no longer kept,
+     * the subscriber receives onError straight after onSubscribe.
+     *
+     * @param subscriber   The subscriber.
+     * @param fromSequence Sequence of the first delta to deliver.
+     */
+    public void subscribe(Flow.Subscriber<? super AvailabilityDelta> subscriber, long fromSequence) {
+        RingSubscription subscription = new RingSubscription(subscriber, fromSequence);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * Gets the sequence number the next delta will get.
+     *
+     * @return The next sequence number.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Gets the number of active subscribers.
+     *
+     * @return Number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Turns booking changes into per-night deltas, from tonight on: nights already past
+     * are no longer for sale. Moving a booking to another room of the same type does not
+     * change availability and publishes nothing, nor do bookings of rooms out of service.
+     * A room change publishes a reset, since which nights it frees or takes depends on
+     * bookings this publisher does not see.
+     */
+    @Override
+    public void onEvent(HotelEvent event) {
+        int change;
+        switch (event.getType()) {
+            case BOOKED:
+                if (!event.getStatus().blocksRoom()) {
+                    return;
+                }
+                change = -1;
+                break;
+            case CANCELLED:
+            case RELEASED:
+                change = 1;
+                break;
+            case ROOM_UPDATED:
+                publishReset();
+                return;
+            default:
+                return;
+        }
+        if (!event.getRoom().isAvailable()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate night = event.getCheckIn().isBefore(today) ? today : event.getCheckIn();
+        for (; night.isBefore(event.getCheckOut()); night = night.plusDays(1)) {
+            publish(event.getRoom().getType(), night, change);
+        }
+    }
+
+    /**
+     * Appends a delta to the ring and wakes up the subscribers.
+     *
+     * @param type   Room type affected.
+     * @param night  Night affected.
+     * @param change Change in free rooms.
+     */
+    public void publish(Room.roomType type, LocalDate night, int change) {
+        append(sequence -> new AvailabilityDelta(sequence, propertyId, type, night, change));
+    }
+
+    /**
+     * Tells subscribers to re-read all availability of the property.
+     */
+    public void publishReset() {
+        append(sequence -> AvailabilityDelta.reset(sequence, propertyId));
+    }
+
+    private void append(LongFunction<AvailabilityDelta> delta) {
+        synchronized (ring) {
+            long sequence = nextSequence;
+            ring[(int) (sequence & mask)] = delta.apply(sequence);
+            nextSequence = sequence + 1;
+        }
+        for (RingSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /**
+     * One subscriber's position in the ring and its outstanding demand.
+     * Delivery runs on the executor, one drain at a time per subscriber.
+     */
+    private class RingSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super AvailabilityDelta> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long cursor;
+        private volatile Throwable invalidRequest;
+
+        RingSubscription(Flow.Subscriber<? super AvailabilityDelta> subscriber, long from) {
+            this.subscriber = subscriber;
+            this.cursor = from;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " deltas; demand must be positive");
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+            }
+        }
+
+        void signal() {
+            if (pendingSignals.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (done.get()) {
+                    return;
+                }
+                if (invalidRequest != null) {
+                    fail(invalidRequest);
+                    return;
+                }
+                if (nextSequence - cursor > ring.length) {
+                    // Overrun while idle; report it now rather than when demand comes back
+                    fail(fellBehind());
+                    return;
+                }
+                while (demand.get() > 0 && cursor < nextSequence && !done.get()) {
+                    AvailabilityDelta delta = ring[(int) (cursor & mask)];
+                    if (delta == null || delta.getSequence() != cursor) {
+                        fail(fellBehind());
+                        return;
+                    }
+                    cursor++;
+                    demand.decrementAndGet();
+                    subscriber.onNext(delta);
+                }
+                missed = pendingSignals.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private IllegalStateException fellBehind() {
+            return new IllegalStateException("Subscriber fell behind: delta " + cursor
+                    + " is no longer available; re-read availability and subscribe again");
+        }
+
+        private void fail(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                subscriber.onError(error);
+            }
+        }
+    }
+}
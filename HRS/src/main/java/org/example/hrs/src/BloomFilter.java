@@ -0,0 +1,110 @@
+package org.example.hrs.src;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings: a set that answers "definitely not present"
+ * or "probably present" in constant time and a few bits per element.
+ *
+ * Each string sets k bits chosen by double hashing of one 64-bit hash. The bit array
+ * is updated with atomic operations, so adds and lookups need no lock.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Constructs a filter sized for an expected number of elements.
+     *
+     * @param expectedElements  Number of elements the filter will hold.
+     * @param falsePositiveRate Wanted chance of a "probably present" for an absent
+     *                          element once full, e.g. 0.01.
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate) {
+        long n = Math.max(1, expectedElements);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value The string.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        long step = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash + i * step);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a string may have been added.
+     *
+     * @param value The string.
+     * @return false if it was definitely never added; true if it probably was.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash + i * step);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of hash functions used per element.
+     *
+     * @return k.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Gets the size of the bit array.
+     *
+     * @return Number of bits.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the murmur3 mixer.
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
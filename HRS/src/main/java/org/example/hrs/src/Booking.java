@@ -8,17 +8,18 @@ import java.time.LocalDate;
  */
 public class Booking {
     private String gustName; // Note: consider renaming to 'guestName' for correct spelling
+    private Guest guest; // Shared with the guest's other bookings, see GuestDirectory
     private Room bookedRoom;
     private String bookingId;
     private LocalDate checkIn;
     private LocalDate checkOut;
-    private String status;
+    private BookingStatus status;
     private String paymentMethod;
     private LocalDate paymentDate;
 
     /**
      * Constructs a new Booking with guest name, room, ID, check-in and check-out dates.
-     * Sets the default booking status to "notConfirmed".
+     * Sets the default booking status to {@link BookingStatus#PENDING}.
      *
      * @param gustName   The name of the guest.
      * @param bookedRoom The room booked.
@@ -31,9 +32,17 @@ public class Booking {
         this.bookedRoom = bookedRoom;
         this.bookingId = bookingId;
         this.gustName = gustName;
+        this.guest = GuestDirectory.getDefault().intern(gustName);
         this.checkIn = checkIn;
         this.checkOut = checkOut;
-        this.status = "notConfirmed";
+        this.status = BookingStatus.PENDING;
+    }
+
+    /**
+     * Constructs an empty booking for subclasses that keep their state elsewhere,
+     * such as the views handed out by {@link BookingStore}.
+     */
+    protected Booking() {
     }
 
     // Getters
@@ -65,15 +74,34 @@ public class Booking {
         return bookedRoom;
     }
 
+    /**
+     * Gets the ID of the property the booking belongs to (that of its room).
+     *
+     * @return Property ID.
+     */
+    public int getPropertyId() {
+        return getBookedRoom().getPropertyId();
+    }
+
     /**
      * Gets the guest name.
      *
-     * @return The name of the guest.
+     * @return The name of the guest, as entered for this booking.
      */
     public String getGustName() {
         return gustName;
     }
 
+    /**
+     * Gets the guest, shared with the guest's other bookings whatever their spelling
+     * of the name.
+     *
+     * @return The guest, or null if the booking has no guest name.
+     */
+    public Guest getGuest() {
+        return guest;
+    }
+
     /**
      * Gets the check-out date.
      *
@@ -86,9 +114,9 @@ public class Booking {
     /**
      * Gets the current booking status.
      *
-     * @return Booking status (e.g., Confirmed, Cancelled, notConfirmed).
+     * @return Booking status.
      */
-    public String getStatus() {
+    public BookingStatus getStatus() {
         return status;
     }
 
@@ -128,6 +156,7 @@ public class Booking {
      */
     public void setGustName(String gustName) {
         this.gustName = gustName;
+        this.guest = GuestDirectory.getDefault().intern(gustName);
     }
 
     /**
@@ -158,14 +187,31 @@ public class Booking {
     }
 
     /**
-     * Sets the status of the booking.
+     * Sets the status of the booking without validating the transition.
+     * Intended for restoring stored bookings; use {@link #transitionTo(BookingStatus)}
+     * for lifecycle changes.
      *
-     * @param status New status (e.g., Confirmed, Cancelled).
+     * @param status New status.
      */
-    public void setStatus(String status) {
+    public void setStatus(BookingStatus status) {
         this.status = status;
     }
 
+    /**
+     * Moves the booking to a new status, enforcing the allowed lifecycle transitions.
+     *
+     * @param next The new status.
+     * @throws IllegalStateException If the transition is not allowed from the current status.
+     */
+    public void transitionTo(BookingStatus next) {
+        BookingStatus current = getStatus();
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException("Booking " + getBookingId() + " cannot go from "
+                    + current.name() + " to " + next.name());
+        }
+        setStatus(next);
+    }
+
     /**
      * Sets the payment date.
      *
@@ -187,18 +233,18 @@ public class Booking {
     /**
      * Checks whether the booking is confirmed.
      *
-     * @return true if the status is "Confirmed", false otherwise.
+     * @return true if the status is CONFIRMED, false otherwise.
      */
     public boolean isConfirmed() {
-        return "Confirmed".equalsIgnoreCase(status);
+        return getStatus() == BookingStatus.CONFIRMED;
     }
 
     /**
      * Checks whether the booking is cancelled.
      *
-     * @return true if the status is "Cancelled", false otherwise.
+     * @return true if the status is CANCELLED, false otherwise.
      */
     public boolean isCancelled() {
-        return "Cancelled".equalsIgnoreCase(status);
+        return getStatus() == BookingStatus.CANCELLED;
     }
 }
@@ -0,0 +1,222 @@
+package org.example.hrs.src;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Data Access Object (DAO) class for the booking archive.
+ *
+ * Finished stays (settled status, check-out older than a configurable horizon) are moved
+ * from the hot `bookings` table into `bookings_archive`, which is range-partitioned by
+ * check-in month. This keeps `bookings` small for startup loads and availability checks,
+ * while history stays queryable through the read methods below.
+ * The archive table itself is created by the V4 schema migration.
+ */
+public class BookingArchiveDAO {
+    private static final String TABLE_NAME = "bookings_archive";
+
+    // Default number of days after check-out before a stay is archived
+    public static final int DEFAULT_HORIZON_DAYS = 365;
+
+    private static final String COLUMNS =
+            "booking_id, guest_name, guest_id, property_id, room_number, check_in, check_out, status, payment_method, payment_date";
+
+    /**
+     * Gets the archival horizon in days, configurable with the
+     * {@code hrs.archive.horizonDays} system property.
+     *
+     * @return Number of days after check-out before a stay is archived.
+     */
+    public static int getHorizonDays() {
+        return Integer.getInteger("hrs.archive.horizonDays", DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Runs the archival job with the configured horizon.
+     *
+     * @return Number of bookings moved to the archive.
+     */
+    public static int archiveCompletedStays() {
+        return archiveOlderThan(LocalDate.now().minusDays(getHorizonDays()));
+    }
+
+    /**
+     * Moves settled bookings that checked out before the cutoff into the archive table.
+     * Work is done one check-in month at a time, each month in its own transaction,
+     * so a first run over years of history never holds one huge transaction open.
+     *
+     * @param cutoff Bookings checking out before this date are archived.
+     * @return Number of bookings moved to the archive.
+     */
+    public static int archiveOlderThan(LocalDate cutoff) {
+        String where = "check_out < ? AND status IN (" + settledStatusCodes() + ")";
+        String rangeSql = "SELECT MIN(check_in), MAX(check_in) FROM bookings WHERE " + where;
+        String copySql = "INSERT INTO " + TABLE_NAME + " (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM bookings WHERE " + where + " AND check_in >= ? AND check_in < ?";
+        String deleteSql = "DELETE FROM bookings WHERE " + where + " AND check_in >= ? AND check_in < ?";
+
+        int archived = 0;
+        try (Connection conn = DBUtil.getConnection()) {
+            YearMonth first;
+            YearMonth last;
+            try (PreparedStatement stmt = conn.prepareStatement(rangeSql)) {
+                stmt.setDate(1, Date.valueOf(cutoff));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next() || rs.getDate(1) == null) {
+                        return 0;
+                    }
+                    first = YearMonth.from(rs.getDate(1).toLocalDate());
+                    last = YearMonth.from(rs.getDate(2).toLocalDate());
+                }
+            }
+
+            // Partition DDL commits implicitly, so it has to happen before the data moves
+            ensureMonthlyPartitions(conn, first, last);
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement copy = conn.prepareStatement(copySql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                    Date from = Date.valueOf(month.atDay(1));
+                    Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+                    for (PreparedStatement stmt : new PreparedStatement[]{copy, delete}) {
+                        stmt.setDate(1, Date.valueOf(cutoff));
+                        stmt.setDate(2, from);
+                        stmt.setDate(3, to);
+                    }
+                    copy.executeUpdate();
+                    archived += delete.executeUpdate();
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error archiving bookings: " + e.getMessage());
+        }
+        return archived;
+    }
+
+    /**
+     * Loads archived bookings whose check-in falls within a date range.
+     * The range predicate on check_in lets MySQL prune to the matching monthly partitions.
+     *
+     * @param from     First check-in date (inclusive).
+     * @param to       Last check-in date (exclusive).
+     * @param roomList Rooms to associate with bookings.
+     * @return Archived bookings in check-in order.
+     */
+    public static List<Booking> findByCheckInRange(LocalDate from, LocalDate to, List<Room> roomList) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE check_in >= ? AND check_in < ? ORDER BY check_in";
+        return query(sql, roomList, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Loads archived bookings for a guest, found by guest key so that any spelling of the
+     * name matches.
+     *
+     * @param guestName Guest name to look up.
+     * @param roomList  Rooms to associate with bookings.
+     * @return Archived bookings of the guest in check-in order.
+     */
+    public static List<Booking> findByGuest(String guestName, List<Room> roomList) {
+        String sql = "SELECT a.* FROM " + TABLE_NAME + " a JOIN guests g ON g.guest_id = a.guest_id " +
+                "WHERE g.guest_key = ? ORDER BY a.check_in";
+        return query(sql, roomList, Guest.normalize(guestName));
+    }
+
+    /**
+     * Finds an archived booking by its ID.
+     *
+     * @param bookingId The booking ID.
+     * @param roomList  Rooms to associate with bookings.
+     * @return The archived booking, or null if not found.
+     */
+    public static Booking findById(String bookingId, List<Room> roomList) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE booking_id = ?";
+        List<Booking> found = query(sql, roomList, bookingId);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Runs a parameterised archive query and maps the rows to bookings.
+     */
+    private static List<Booking> query(String sql, List<Room> roomList, Object... params) {
+        List<Booking> bookings = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            Map<Long, Room> roomsByNumber = BookingDAO.indexRooms(roomList);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Booking booking = BookingDAO.mapResultSetToBooking(rs, roomsByNumber);
+                    if (booking != null) {
+                        bookings.add(booking);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading archived bookings: " + e.getMessage());
+        }
+        return bookings;
+    }
+
+    /**
+     * Makes sure monthly partitions exist for the given months by splitting new months
+     * off the catch-all partition. Range partitions only grow upwards, and the lowest
+     * monthly partition also holds anything older, so only months above the current
+     * highest partition ever need to be added.
+     */
+    private static void ensureMonthlyPartitions(Connection conn, YearMonth first, YearMonth month) throws SQLException {
+        String sql = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME <> 'pmax' " +
+                "ORDER BY PARTITION_ORDINAL_POSITION DESC LIMIT 1";
+        YearMonth next = first;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, TABLE_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    String name = rs.getString(1); // pYYYYMM
+                    YearMonth highest = YearMonth.of(Integer.parseInt(name.substring(1, 5)),
+                            Integer.parseInt(name.substring(5)));
+                    next = highest.plusMonths(1);
+                }
+            }
+        }
+        if (next.isAfter(month)) {
+            return;
+        }
+
+        StringJoiner partitions = new StringJoiner(", ");
+        for (YearMonth m = next; !m.isAfter(month); m = m.plusMonths(1)) {
+            partitions.add(String.format("PARTITION p%04d%02d VALUES LESS THAN ('%s')",
+                    m.getYear(), m.getMonthValue(), m.plusMonths(1).atDay(1)));
+        }
+        partitions.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION pmax INTO (" + partitions + ")");
+        }
+    }
+
+    /**
+     * Builds the SQL list of status codes that count as settled.
+     */
+    private static String settledStatusCodes() {
+        StringJoiner codes = new StringJoiner(", ");
+        for (BookingStatus status : BookingStatus.values()) {
+            if (status.isSettled()) {
+                codes.add(String.valueOf(status.getCode()));
+            }
+        }
+        return codes.toString();
+    }
+}
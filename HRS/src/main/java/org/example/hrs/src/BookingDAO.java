@@ -3,7 +3,11 @@ package org.example.hrs.src;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object (DAO) class for managing booking data in the database.
@@ -12,33 +16,53 @@ import java.util.List;
 public class BookingDAO {
 
     /**
-     * Saves or updates a booking record in the database using the REPLACE INTO SQL command.
-     * If the booking already exists (same booking_id), it will be updated.
+     * Saves or updates a booking record in the database using INSERT ... ON DUPLICATE KEY UPDATE.
+     * If the booking already exists (same booking_id), it will be updated. Unchanged rows are
+     * left untouched, so their updated_at change timestamp only moves when the data does.
      *
      * @param booking The {@link Booking} object to save.
      */
     public static void saveBooking(Booking booking) {
-        String sql = "REPLACE INTO bookings (booking_id, guest_name, room_number, check_in, check_out, status, payment_method, payment_date) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO bookings (booking_id, guest_name, guest_id, property_id, room_number, check_in, check_out, status, payment_method, payment_date) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE " +
+                "guest_name = VALUES(guest_name), " +
+                "guest_id = VALUES(guest_id), " +
+                "property_id = VALUES(property_id), " +
+                "room_number = VALUES(room_number), " +
+                "check_in = VALUES(check_in), " +
+                "check_out = VALUES(check_out), " +
+                "status = VALUES(status), " +
+                "payment_method = VALUES(payment_method), " +
+                "payment_date = VALUES(payment_date)";
+
+        // Only a guest's first booking stores the guest; the ID is kept on the shared Guest
+        long guestId = GuestDAO.saveGuest(booking.getGuest());
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, booking.getBookingId());
             stmt.setString(2, booking.getGustName()); // Consider renaming to getGuestName()
-            stmt.setInt(3, booking.getBookedRoom().getRoomNumber());
-            stmt.setDate(4, Date.valueOf(booking.getCheckIn()));
-            stmt.setDate(5, Date.valueOf(booking.getCheckOut()));
-            stmt.setString(6, booking.getStatus());
-            stmt.setString(7, booking.getPaymentMethod());
+            if (guestId != 0) {
+                stmt.setLong(3, guestId);
+            } else {
+                stmt.setNull(3, Types.BIGINT);
+            }
+            stmt.setInt(4, booking.getPropertyId());
+            stmt.setInt(5, booking.getBookedRoom().getRoomNumber());
+            stmt.setDate(6, Date.valueOf(booking.getCheckIn()));
+            stmt.setDate(7, Date.valueOf(booking.getCheckOut()));
+            stmt.setInt(8, booking.getStatus().getCode());
+            stmt.setString(9, booking.getPaymentMethod());
 
             // Save the associated room status to database
             RoomDAO.updateRoom(booking.getBookedRoom());
 
             if (booking.getPaymentDate() != null) {
-                stmt.setDate(8, Date.valueOf(booking.getPaymentDate()));
+                stmt.setDate(10, Date.valueOf(booking.getPaymentDate()));
             } else {
-                stmt.setNull(8, Types.DATE);
+                stmt.setNull(10, Types.DATE);
             }
 
             stmt.executeUpdate();
@@ -50,6 +74,7 @@ public class BookingDAO {
 
     /**
      * Loads all bookings from the database and matches them to rooms using the provided room list.
+     * Reads from a replica if one is configured.
      *
      * @param roomList List of rooms to associate with bookings.
      * @return List of {@link Booking} objects loaded from the database.
@@ -58,37 +83,48 @@ public class BookingDAO {
         List<Booking> bookings = new ArrayList<>();
         String sql = "SELECT * FROM bookings";
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            Map<Long, Room> roomsByNumber = indexRooms(roomList);
             while (rs.next()) {
-                String id = rs.getString("booking_id");
-                String guest = rs.getString("guest_name");
-                int roomNumber = rs.getInt("room_number");
-                LocalDate checkIn = rs.getDate("check_in").toLocalDate();
-                LocalDate checkOut = rs.getDate("check_out").toLocalDate();
-                String status = rs.getString("status");
-                String paymentMethod = rs.getString("payment_method");
-                Date payDateRaw = rs.getDate("payment_date");
-
-                // Match booking to room
-                Room room = roomList.stream()
-                        .filter(r -> r.getRoomNumber() == roomNumber)
-                        .findFirst()
-                        .orElse(null);
-
-                if (room == null) continue; // Skip if no matching room found
-
-                Booking booking = new Booking(guest, room, id, checkIn, checkOut);
-                booking.setStatus(status);
-                booking.setPaymentMethod(paymentMethod);
-
-                if (payDateRaw != null) {
-                    booking.setPaymentDate(payDateRaw.toLocalDate());
+                Booking booking = mapResultSetToBooking(rs, roomsByNumber);
+                if (booking != null) {
+                    bookings.add(booking);
                 }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace(); // Replace with proper logging in production
+        }
+
+        return bookings;
+    }
+
+    /**
+     * Loads the bookings of one property and matches them to the property's rooms.
+     *
+     * @param propertyId The property to load.
+     * @param roomList   Rooms of the property.
+     * @return List of {@link Booking} objects of the property.
+     */
+    public static List<Booking> loadBookingsByProperty(int propertyId, List<Room> roomList) {
+        List<Booking> bookings = new ArrayList<>();
+        String sql = "SELECT * FROM bookings WHERE property_id = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                bookings.add(booking);
+            stmt.setInt(1, propertyId);
+            Map<Long, Room> roomsByNumber = indexRooms(roomList);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Booking booking = mapResultSetToBooking(rs, roomsByNumber);
+                    if (booking != null) {
+                        bookings.add(booking);
+                    }
+                }
             }
 
         } catch (SQLException e) {
@@ -97,4 +133,130 @@ public class BookingDAO {
 
         return bookings;
     }
+
+    /**
+     * Loads the bookings of one property that were inserted or changed at or after a point in time.
+     * Used to bring a locally cached snapshot up to date.
+     *
+     * @param propertyId The property to load.
+     * @param since      Database time from which changes are wanted.
+     * @param roomList   Rooms of the property.
+     * @return Changed bookings of the property.
+     */
+    public static List<Booking> loadBookingsChangedSince(int propertyId, Timestamp since, List<Room> roomList) {
+        List<Booking> bookings = new ArrayList<>();
+        String sql = "SELECT * FROM bookings WHERE property_id = ? AND updated_at >= ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            stmt.setTimestamp(2, since);
+            Map<Long, Room> roomsByNumber = indexRooms(roomList);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Booking booking = mapResultSetToBooking(rs, roomsByNumber);
+                    if (booking != null) {
+                        bookings.add(booking);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace(); // Replace with proper logging in production
+        }
+
+        return bookings;
+    }
+
+    /**
+     * Loads the IDs of one property's bookings. Used to find bookings that were deleted or
+     * archived since a snapshot was taken.
+     *
+     * @param propertyId The property to load.
+     * @return Set of booking IDs, or null if the bookings could not be read.
+     */
+    public static Set<String> loadBookingIdsByProperty(int propertyId) {
+        Set<String> ids = new HashSet<>();
+        // Only bookings whose room exists, like the ones loadBookingsByProperty returns
+        String sql = "SELECT b.booking_id FROM bookings b JOIN rooms r " +
+                "ON r.property_id = b.property_id AND r.room_number = b.room_number WHERE b.property_id = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading booking IDs: " + e.getMessage());
+            return null;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Indexes rooms by property and room number for matching booking rows to rooms.
+     *
+     * @param roomList Rooms to index.
+     * @return Map from {@link #roomKey(int, int)} to room.
+     */
+    static Map<Long, Room> indexRooms(List<Room> roomList) {
+        Map<Long, Room> roomsByNumber = new HashMap<>();
+        for (Room room : roomList) {
+            roomsByNumber.put(roomKey(room.getPropertyId(), room.getRoomNumber()), room);
+        }
+        return roomsByNumber;
+    }
+
+    /**
+     * Combines a property ID and room number into one lookup key.
+     *
+     * @param propertyId Property ID.
+     * @param roomNumber Room number within the property.
+     * @return Combined key.
+     */
+    static long roomKey(int propertyId, int roomNumber) {
+        return ((long) propertyId << 32) | (roomNumber & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Maps the current row of a bookings (or bookings archive) result set to a Booking.
+     *
+     * @param rs            Result set positioned on a row.
+     * @param roomsByNumber Rooms indexed by {@link #roomKey(int, int)}.
+     * @return The booking, or null if its room is unknown.
+     * @throws SQLException If a column cannot be read.
+     */
+    static Booking mapResultSetToBooking(ResultSet rs, Map<Long, Room> roomsByNumber) throws SQLException {
+        String id = rs.getString("booking_id");
+        String guest = rs.getString("guest_name");
+        int propertyId = rs.getInt("property_id");
+        int roomNumber = rs.getInt("room_number");
+        LocalDate checkIn = rs.getDate("check_in").toLocalDate();
+        LocalDate checkOut = rs.getDate("check_out").toLocalDate();
+        BookingStatus status = BookingStatus.fromColumn(rs.getString("status"));
+        String paymentMethod = rs.getString("payment_method");
+        Date payDateRaw = rs.getDate("payment_date");
+
+        // Match booking to room
+        Room room = roomsByNumber.get(roomKey(propertyId, roomNumber));
+        if (room == null) {
+            return null; // Skip if no matching room found
+        }
+
+        Booking booking = new Booking(guest, room, id, checkIn, checkOut);
+        booking.setStatus(status);
+        booking.setPaymentMethod(paymentMethod);
+
+        if (payDateRaw != null) {
+            booking.setPaymentDate(payDateRaw.toLocalDate());
+        }
+        return booking;
+    }
 }
@@ -0,0 +1,220 @@
+package org.example.hrs.src;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-ordered 64-bit booking IDs without locking.
+ *
+ * Layout (most significant first):
+ * - 41 bits: milliseconds since 2024-01-01 UTC (good for about 69 years)
+ * - 10 bits: node ID of the HRS instance (0-1023)
+ * - 12 bits: sequence within the millisecond (4096 IDs per ms per node)
+ *
+ * Instances must run with distinct node IDs, set with the {@code hrs.nodeId} system
+ * property; that is what keeps IDs unique across instances. There is no fallback: two
+ * instances that guessed the same node ID would issue the same IDs, and saving a booking
+ * would overwrite the other instance's, so the default generator refuses to start
+ * without one. If the sequence of a
+ * millisecond runs out, or the clock steps back, the generator simply carries on from
+ * the last issued value instead of waiting, so IDs never repeat within a node.
+ *
+ * IDs are shown as 13 Crockford base32 characters. The width is fixed, so string
+ * order matches numeric (= time) order and new IDs land at the end of the index.
+ */
+public class BookingIdGenerator {
+
+    // System property holding this instance's node ID
+    public static final String NODE_ID_PROPERTY = "hrs.nodeId";
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Crockford base32: no I, L, O or U
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    // Value of each character in decode(), -1 if invalid; covers the misread letters too
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = i;
+            DIGITS[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        DIGITS['I'] = DIGITS['i'] = DIGITS['L'] = DIGITS['l'] = 1;
+        DIGITS['O'] = DIGITS['o'] = 0;
+    }
+
+    private final long nodeId;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Constructs a generator for one node.
+     *
+     * @param nodeId Node ID, 0-1023, unique per running HRS instance.
+     * @throws IllegalArgumentException if the node ID is out of range.
+     */
+    public BookingIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Gets the generator shared by this process.
+     *
+     * @return The process-wide generator.
+     * @throws IllegalStateException if {@code hrs.nodeId} is not set or out of range.
+     */
+    public static BookingIdGenerator getDefault() {
+        BookingIdGenerator generator = defaultInstance;
+        if (generator == null) {
+            // Not a holder class: a missing node ID must fail every call, not just the first
+            synchronized (BookingIdGenerator.class) {
+                if (defaultInstance == null) {
+                    defaultInstance = new BookingIdGenerator(configuredNodeId());
+                }
+                generator = defaultInstance;
+            }
+        }
+        return generator;
+    }
+
+    // Created on first use, so the node ID is only resolved when IDs are actually issued
+    private static volatile BookingIdGenerator defaultInstance;
+
+    /**
+     * Issues the next ID.
+     *
+     * @return A unique positive 63-bit ID.
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = (now > prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Issues the next ID in its base32 form.
+     *
+     * @return A 13-character booking ID.
+     */
+    public String nextBookingId() {
+        return encode(nextId());
+    }
+
+    /**
+     * Encodes an ID as fixed-width Crockford base32.
+     *
+     * @param id The ID.
+     * @return The 13-character form.
+     */
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Checks whether a booking ID is in the exact form {@link #encode(long)} produces, so
+     * that decoding and re-encoding it gives the same text. IDs from before this generator
+     * or typed in by hand usually are not.
+     *
+     * @param text The booking ID.
+     * @return true if the ID round-trips through {@link #decode(String)}.
+     */
+    public static boolean isEncoded(String text) {
+        if (text == null || text.length() != ENCODED_LENGTH || text.charAt(0) > '7') {
+            return false; // The first character holds the top 3 of 63 bits
+        }
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || DIGITS[c] < 0 || ALPHABET[DIGITS[c]] != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a base32 booking ID. Lower case, hyphens and the commonly misread
+     * letters I, L (as 1) and O (as 0) are accepted.
+     *
+     * @param text The booking ID.
+     * @return The numeric ID.
+     * @throws IllegalArgumentException if the text is not a valid ID.
+     */
+    public static long decode(String text) {
+        long id = 0;
+        int digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            int value = c < 128 ? DIGITS[c] : -1;
+            if (value < 0 || ++digits > ENCODED_LENGTH) {
+                throw new IllegalArgumentException("Not a booking ID: " + text);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+
+    /**
+     * Gets the time an ID was issued.
+     *
+     * @param id The ID.
+     * @return Issue time in epoch milliseconds.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * Gets the node that issued an ID.
+     *
+     * @param id The ID.
+     * @return The node ID.
+     */
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    /**
+     * Reads the node ID from {@code hrs.nodeId}.
+     *
+     * @return The configured node ID.
+     * @throws IllegalStateException if the property is not set, not a number or out of range.
+     */
+    public static long configuredNodeId() {
+        Long configured = Long.getLong(NODE_ID_PROPERTY);
+        if (configured == null || configured < 0 || configured > MAX_NODE) {
+            throw new IllegalStateException("Set -D" + NODE_ID_PROPERTY + "=<0-" + MAX_NODE
+                    + ">, unique per running HRS instance, to issue booking IDs (is: "
+                    + System.getProperty(NODE_ID_PROPERTY) + ")");
+        }
+        return configured;
+    }
+}
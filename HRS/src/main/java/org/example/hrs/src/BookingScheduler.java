@@ -0,0 +1,318 @@
+package org.example.hrs.src;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves a hotel's bookings along on their own when their deadlines pass:
+ * - a PENDING booking that is not paid within the pending TTL is cancelled
+ * - a CONFIRMED booking whose guest has not checked in by the no-show cutoff on the
+ *   day after check-in becomes a no-show and releases its room
+ * - a CHECKED_IN booking is checked out at checkout time on its check-out date
+ *
+ * Each booking's next deadline goes into a {@link DelayQueue} when the booking enters
+ * the status it applies to, as seen on the hotel's events. A single background thread
+ * sleeps until the earliest deadline, so nothing scans the bookings periodically and
+ * idle bookings cost nothing. Deadlines are never removed early: one that fires for a
+ * booking that has moved on in the meantime (paid, cancelled, checked in) is dropped.
+ *
+ * No-show deadlines that have already passed when bookings are (re)scheduled are not
+ * acted on: such a guest may be in-house on a booking that was never checked in, e.g.
+ * one from before check-in was recorded. Those bookings are left for the desk instead,
+ * see {@link #getOverdueArrivals()}.
+ */
+public class BookingScheduler implements HotelListener {
+
+    /**
+     * A point in time at which a booking must have left a status.
+     */
+    private static final class Deadline implements Delayed {
+        private final long dueMillis;
+        private final String bookingId;
+        private final BookingStatus status;
+
+        Deadline(long dueMillis, String bookingId, BookingStatus status) {
+            this.dueMillis = dueMillis;
+            this.bookingId = bookingId;
+            this.status = status;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Deadline) other).dueMillis);
+        }
+    }
+
+    private final Hotel hotel;
+    private final Duration pendingTtl;
+    private final LocalTime noShowCutoff;
+    private final LocalTime checkoutTime;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private final Set<String> overdueArrivals = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong noShows = new AtomicLong();
+    private final AtomicLong checkedOut = new AtomicLong();
+
+    private Thread worker;
+
+    /**
+     * Constructs a scheduler configured from system properties:
+     * {@code hrs.scheduler.pendingTtlMinutes} (default 30),
+     * {@code hrs.scheduler.noShowCutoff} (default 06:00) and
+     * {@code hrs.scheduler.checkoutTime} (default 12:00).
+     *
+     * @param hotel The hotel whose bookings are handled.
+     */
+    public BookingScheduler(Hotel hotel) {
+        this(hotel,
+                Duration.ofMinutes(Long.getLong("hrs.scheduler.pendingTtlMinutes", 30)),
+                LocalTime.parse(System.getProperty("hrs.scheduler.noShowCutoff", "06:00")),
+                LocalTime.parse(System.getProperty("hrs.scheduler.checkoutTime", "12:00")));
+    }
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param hotel        The hotel whose bookings are handled.
+     * @param pendingTtl   How long an unpaid booking holds its room.
+     * @param noShowCutoff Time on the day after check-in by which the guest must have arrived.
+     * @param checkoutTime Time on the check-out date at which guests are checked out.
+     */
+    public BookingScheduler(Hotel hotel, Duration pendingTtl, LocalTime noShowCutoff, LocalTime checkoutTime) {
+        this.hotel = hotel;
+        this.pendingTtl = pendingTtl;
+        this.noShowCutoff = noShowCutoff;
+        this.checkoutTime = checkoutTime;
+    }
+
+    /**
+     * Schedules the hotel's current bookings and starts following its changes.
+     * Unpaid bookings that are already there get the full pending TTL from now.
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        hotel.getEvents().addListener(this);
+        rescheduleAll();
+        worker = new Thread(this::run, "booking-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops handling deadlines and following the hotel's changes.
+     */
+    public synchronized void stop() {
+        if (worker == null) {
+            return;
+        }
+        hotel.getEvents().removeListener(this);
+        worker.interrupt();
+        worker = null;
+        deadlines.clear();
+    }
+
+    /**
+     * Schedules every active booking again, e.g. after the hotel reloaded its bookings
+     * without publishing events. Deadlines that are scheduled twice only act once.
+     * Confirmed bookings already past their no-show cutoff are not scheduled but added
+     * to the overdue arrivals.
+     */
+    public void rescheduleAll() {
+        List<Booking> bookings;
+        synchronized (hotel) {
+            bookings = new ArrayList<>(hotel.getAllBookings());
+        }
+        long now = System.currentTimeMillis();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() == BookingStatus.CONFIRMED
+                    && dueMillis(booking.getStatus(), booking.getCheckIn(), booking.getCheckOut()) <= now) {
+                overdueArrivals.add(booking.getBookingId());
+                continue;
+            }
+            schedule(booking.getBookingId(), booking.getStatus(), booking.getCheckIn(), booking.getCheckOut());
+        }
+    }
+
+    /**
+     * Gets the confirmed bookings that were already past their no-show cutoff when they
+     * were scheduled and are still confirmed. The desk should check these guests in if
+     * they are in-house, or cancel the bookings.
+     *
+     * @return Overdue bookings, in no particular order.
+     */
+    public List<Booking> getOverdueArrivals() {
+        List<Booking> overdue = new ArrayList<>();
+        synchronized (hotel) {
+            for (String bookingId : overdueArrivals) {
+                Booking booking = hotel.findById(bookingId);
+                if (booking != null && booking.getStatus() == BookingStatus.CONFIRMED) {
+                    overdue.add(booking);
+                } else {
+                    overdueArrivals.remove(bookingId); // Handled by the desk
+                }
+            }
+        }
+        return overdue;
+    }
+
+    /**
+     * Schedules the next deadline of each booking that was created or changed status.
+     */
+    @Override
+    public void onEvent(HotelEvent event) {
+        switch (event.getType()) {
+            case BOOKED:
+            case PAID:
+            case STATUS_CHANGED:
+                schedule(event.getBookingId(), event.getStatus(), event.getCheckIn(), event.getCheckOut());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Handles every deadline that is due now, without waiting.
+     *
+     * @return Number of bookings moved on.
+     */
+    public int runDue() {
+        int handled = 0;
+        Deadline due;
+        while ((due = deadlines.poll()) != null) {
+            if (fire(due)) {
+                handled++;
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Gets the number of deadlines waiting, including ones that will turn out stale.
+     *
+     * @return Number of queued deadlines.
+     */
+    public int getScheduledCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Gets the number of unpaid bookings cancelled after the pending TTL.
+     *
+     * @return Expired booking count.
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * Gets the number of bookings marked as no-shows.
+     *
+     * @return No-show count.
+     */
+    public long getNoShowCount() {
+        return noShows.get();
+    }
+
+    /**
+     * Gets the number of guests checked out automatically.
+     *
+     * @return Automatic checkout count.
+     */
+    public long getCheckedOutCount() {
+        return checkedOut.get();
+    }
+
+    private void schedule(String bookingId, BookingStatus status, LocalDate checkIn, LocalDate checkOut) {
+        long due = dueMillis(status, checkIn, checkOut);
+        if (due >= 0) {
+            deadlines.add(new Deadline(due, bookingId, status));
+        }
+    }
+
+    /**
+     * Works out when a booking must have left a status.
+     *
+     * @return Deadline in epoch milliseconds, or -1 if the status has none.
+     */
+    private long dueMillis(BookingStatus status, LocalDate checkIn, LocalDate checkOut) {
+        switch (status) {
+            case PENDING:
+                return System.currentTimeMillis() + pendingTtl.toMillis();
+            case CONFIRMED:
+                return checkIn.plusDays(1).atTime(noShowCutoff).atZone(zone).toInstant().toEpochMilli();
+            case CHECKED_IN:
+                return checkOut.atTime(checkoutTime).atZone(zone).toInstant().toEpochMilli();
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Background loop: waits for the earliest deadline and acts on it.
+     */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                fire(deadlines.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error handling booking deadline: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves a booking on if it is still in the status the deadline was set for.
+     */
+    private boolean fire(Deadline deadline) {
+        synchronized (hotel) {
+            Booking booking = hotel.findById(deadline.bookingId);
+            if (booking == null || booking.getStatus() != deadline.status) {
+                return false; // Stale: the booking moved on before its deadline
+            }
+            switch (deadline.status) {
+                case PENDING:
+                    if (hotel.cancelBook(deadline.bookingId)) {
+                        expired.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                case CONFIRMED:
+                    if (hotel.markNoShow(deadline.bookingId)) {
+                        noShows.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                case CHECKED_IN:
+                    if (hotel.checkOut(deadline.bookingId)) {
+                        checkedOut.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.hrs.src;
+
+/**
+ * Lifecycle states of a booking and the transitions allowed between them.
+ *
+ * A booking starts as PENDING (not yet paid), becomes CONFIRMED once paid,
+ * then CHECKED_IN and finally CHECKED_OUT. Unfinished bookings can be CANCELLED,
+ * and confirmed bookings whose guest never arrives become NO_SHOW.
+ * Each state persists as a small integer code.
+ */
+public enum BookingStatus {
+    PENDING(0, "notConfirmed"),
+    CONFIRMED(1, "Confirmed"),
+    CHECKED_IN(2, "Checked In"),
+    CHECKED_OUT(3, "Checked Out"),
+    CANCELLED(4, "Cancelled"),
+    NO_SHOW(5, "No Show");
+
+    // Indexed by code for constant-time decoding
+    private static final BookingStatus[] BY_CODE = values();
+
+    private final byte code;
+    private final String label;
+
+    /**
+     * Constructs a status with its persisted code and display label.
+     *
+     * @param code  Code stored in the database.
+     * @param label Human-readable label.
+     */
+    BookingStatus(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    /**
+     * Gets the code used to persist this status.
+     *
+     * @return Status code.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the display label of this status.
+     *
+     * @return Status label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Checks whether a booking in this status may move to the given status.
+     *
+     * @param next The requested next status.
+     * @return true if the transition is allowed, false otherwise.
+     */
+    public boolean canTransitionTo(BookingStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED:
+                return next == CHECKED_IN || next == CANCELLED || next == NO_SHOW;
+            case CHECKED_IN:
+                return next == CHECKED_OUT;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether a booking in this status holds its room for its dates.
+     *
+     * @return true for pending, confirmed and checked-in bookings.
+     */
+    public boolean blocksRoom() {
+        switch (this) {
+            case PENDING:
+            case CONFIRMED:
+            case CHECKED_IN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether nothing is left to collect or do for a booking in this status
+     * once its stay dates are over.
+     *
+     * @return true for every status except pending and checked-in.
+     */
+    public boolean isSettled() {
+        return this != PENDING && this != CHECKED_IN;
+    }
+
+    /**
+     * Decodes a persisted status code.
+     *
+     * @param code The status code.
+     * @return The matching status.
+     * @throws IllegalArgumentException If the code is unknown.
+     */
+    public static BookingStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown booking status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Parses a status column value, accepting both numeric codes and the
+     * free-form labels written by older versions ("notConfirmed", "Confirmed", "Cancelled").
+     *
+     * @param value The stored value.
+     * @return The matching status; PENDING if the value is null.
+     * @throws IllegalArgumentException If the value is not recognised.
+     */
+    public static BookingStatus fromColumn(String value) {
+        if (value == null) {
+            return PENDING;
+        }
+        String trimmed = value.trim();
+        if (!trimmed.isEmpty() && Character.isDigit(trimmed.charAt(0))) {
+            return fromCode(Integer.parseInt(trimmed));
+        }
+        for (BookingStatus status : BY_CODE) {
+            if (status.label.equalsIgnoreCase(trimmed) || status.name().equalsIgnoreCase(trimmed)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown booking status: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,421 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented (struct-of-arrays) store for historical bookings.
+ *
+ * Each booking occupies one row index across a set of primitive arrays instead of
+ * being a separate object graph: room numbers and dates are stored as ints
+ * (dates as epoch days), the status is stored as its {@link BookingStatus} code
+ * and the payment method is dictionary-encoded into a single byte. Guest names
+ * are interned so repeat guests share one String.
+ * Booking IDs are kept in their numeric {@link BookingIdGenerator} form in a long
+ * column, and found through an open-addressing table of row numbers, so a row costs
+ * no String, map entry or boxed Integer. IDs that are not in that form (older or
+ * hand-entered ones) are kept as Strings on the side.
+ * {@link Booking#getGuest()} resolves the name through the {@link GuestDirectory}.
+ * {@link Booking} objects handed out by {@link #get(int)} are lightweight views
+ * that read and write straight through to the columns.
+ */
+public class BookingStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Marker for a missing payment date
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Marker for a missing dictionary value (e.g. no payment method yet)
+    private static final byte NO_VALUE = -1;
+
+    // No legacy ID slot to reuse
+    private static final int NO_LEGACY_ID = -1;
+
+    private int size;
+
+    // Decoded booking IDs; a negative value ~i refers to legacyIds.get(i) instead
+    private long[] bookingIds;
+    private int[] guestRefs;
+    private int[] roomNumbers;
+    private int[] checkIns;
+    private int[] checkOuts;
+    private int[] paymentDates;
+    private byte[] statuses;
+    private byte[] paymentMethods;
+
+    // Interned guest names, referenced by index from guestRefs
+    private final List<String> guestNames = new ArrayList<>();
+    private final Map<String, Integer> guestIndex = new HashMap<>();
+
+    // Small dictionary for the low-cardinality payment method column
+    private final List<String> paymentMethodValues = new ArrayList<>();
+
+    // Booking IDs that do not decode to a long
+    private final List<String> legacyIds = new ArrayList<>();
+
+    // Row lookup by booking ID: row + 1 per slot, 0 for empty, linear probing
+    private int[] idSlots;
+
+    // Room lookup by number (rooms are shared, not copied)
+    private final Map<Integer, Room> roomsByNumber = new HashMap<>();
+
+    /**
+     * Constructs an empty store.
+     */
+    public BookingStore() {
+        bookingIds = new long[INITIAL_CAPACITY];
+        idSlots = new int[INITIAL_CAPACITY * 2];
+        guestRefs = new int[INITIAL_CAPACITY];
+        roomNumbers = new int[INITIAL_CAPACITY];
+        checkIns = new int[INITIAL_CAPACITY];
+        checkOuts = new int[INITIAL_CAPACITY];
+        paymentDates = new int[INITIAL_CAPACITY];
+        statuses = new byte[INITIAL_CAPACITY];
+        paymentMethods = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends a booking to the store, copying its state into the columns.
+     * The original Booking object is no longer referenced afterwards.
+     *
+     * @param booking The booking to append.
+     * @return The row index of the stored booking.
+     */
+    public int add(Booking booking) {
+        ensureCapacity(size + 1);
+        int row = size++;
+
+        Room room = booking.getBookedRoom();
+        roomsByNumber.putIfAbsent(room.getRoomNumber(), room);
+
+        bookingIds[row] = encodeId(booking.getBookingId(), NO_LEGACY_ID);
+        guestRefs[row] = internGuest(booking.getGustName());
+        roomNumbers[row] = room.getRoomNumber();
+        checkIns[row] = (int) booking.getCheckIn().toEpochDay();
+        checkOuts[row] = (int) booking.getCheckOut().toEpochDay();
+        paymentDates[row] = toEpochDay(booking.getPaymentDate());
+        statuses[row] = booking.getStatus().getCode();
+        paymentMethods[row] = encode(paymentMethodValues, booking.getPaymentMethod());
+
+        indexRow(row);
+        return row;
+    }
+
+    /**
+     * Gets a view of the booking stored at the given row.
+     *
+     * @param row The row index.
+     * @return A Booking view backed by this store.
+     */
+    public Booking get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range (size " + size + ")");
+        }
+        return new View(row);
+    }
+
+    /**
+     * Finds a stored booking by its ID.
+     *
+     * @param bookingId The booking ID.
+     * @return A Booking view if found; null otherwise.
+     */
+    public Booking findById(String bookingId) {
+        if (bookingId == null) {
+            return null;
+        }
+        long id = BookingIdGenerator.isEncoded(bookingId) ? BookingIdGenerator.decode(bookingId) : -1;
+        int hash = id >= 0 ? hash(id) : hash(bookingId);
+        for (int slot = hash & (idSlots.length - 1); idSlots[slot] != 0; slot = (slot + 1) & (idSlots.length - 1)) {
+            int row = idSlots[slot] - 1;
+            long stored = bookingIds[row];
+            if (id >= 0 ? stored == id : stored < 0 && legacyIds.get((int) ~stored).equals(bookingId)) {
+                return new View(row);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of bookings held in the store.
+     *
+     * @return Number of stored bookings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct guest names held in the store.
+     *
+     * @return Number of interned guest names.
+     */
+    public int guestCount() {
+        return guestNames.size();
+    }
+
+    /**
+     * Interns a guest name, returning its index in the name table.
+     */
+    private int internGuest(String guestName) {
+        Integer ref = guestIndex.get(guestName);
+        if (ref == null) {
+            ref = guestNames.size();
+            guestNames.add(guestName);
+            guestIndex.put(guestName, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Converts a booking ID to its column value, reusing the given legacy ID slot if the
+     * ID does not decode to a long.
+     */
+    private long encodeId(String bookingId, int legacySlot) {
+        if (BookingIdGenerator.isEncoded(bookingId)) {
+            return BookingIdGenerator.decode(bookingId);
+        }
+        if (legacySlot == NO_LEGACY_ID) {
+            legacySlot = legacyIds.size();
+            legacyIds.add(bookingId);
+        } else {
+            legacyIds.set(legacySlot, bookingId);
+        }
+        return ~legacySlot;
+    }
+
+    private String decodeId(long id) {
+        return id >= 0 ? BookingIdGenerator.encode(id) : legacyIds.get((int) ~id);
+    }
+
+    private int rowHash(int row) {
+        long id = bookingIds[row];
+        return id >= 0 ? hash(id) : hash(legacyIds.get((int) ~id));
+    }
+
+    private static int hash(long id) {
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        return (int) id;
+    }
+
+    private static int hash(String legacyId) {
+        return hash((long) legacyId.hashCode());
+    }
+
+    /**
+     * Adds a row to the ID table, replacing an older row with the same booking ID.
+     * The table is kept at most half full.
+     */
+    private void indexRow(int row) {
+        if (idSlots.length < 2 * size) {
+            int[] old = idSlots;
+            idSlots = new int[old.length * 2];
+            for (int slot : old) {
+                if (slot != 0) {
+                    insertSlot(slot - 1);
+                }
+            }
+        }
+        insertSlot(row);
+    }
+
+    private void insertSlot(int row) {
+        int mask = idSlots.length - 1;
+        long id = bookingIds[row];
+        int slot = rowHash(row) & mask;
+        while (idSlots[slot] != 0) {
+            long stored = bookingIds[idSlots[slot] - 1];
+            if (stored == id || (stored < 0 && id < 0
+                    && legacyIds.get((int) ~stored).equals(legacyIds.get((int) ~id)))) {
+                break; // Same booking ID: the newer row wins
+            }
+            slot = (slot + 1) & mask;
+        }
+        idSlots[slot] = row + 1;
+    }
+
+    /**
+     * Removes a row from the ID table, shifting later entries of its probe run back so
+     * that lookups never stop early at the freed slot.
+     */
+    private void unindexRow(int row) {
+        int mask = idSlots.length - 1;
+        int slot = rowHash(row) & mask;
+        while (idSlots[slot] != row + 1) {
+            if (idSlots[slot] == 0) {
+                return; // Replaced by a newer row with the same booking ID
+            }
+            slot = (slot + 1) & mask;
+        }
+        int free = slot;
+        for (int next = (free + 1) & mask; idSlots[next] != 0; next = (next + 1) & mask) {
+            int home = rowHash(idSlots[next] - 1) & mask;
+            // Move the entry back unless its home lies cyclically in (free, next]
+            boolean stays = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!stays) {
+                idSlots[free] = idSlots[next];
+                free = next;
+            }
+        }
+        idSlots[free] = 0;
+    }
+
+    /**
+     * Dictionary-encodes a value into a byte code, adding it to the dictionary if new.
+     */
+    private static byte encode(List<String> dictionary, String value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        int code = dictionary.indexOf(value);
+        if (code < 0) {
+            if (dictionary.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values to encode: " + value);
+            }
+            code = dictionary.size();
+            dictionary.add(value);
+        }
+        return (byte) code;
+    }
+
+    /**
+     * Decodes a byte code back to its dictionary value.
+     */
+    private static String decode(List<String> dictionary, byte code) {
+        return code == NO_VALUE ? null : dictionary.get(code);
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Grows all columns together so that they can hold at least the given number of rows.
+     */
+    private void ensureCapacity(int required) {
+        if (required <= bookingIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, bookingIds.length + (bookingIds.length >> 1));
+        bookingIds = Arrays.copyOf(bookingIds, capacity);
+        guestRefs = Arrays.copyOf(guestRefs, capacity);
+        roomNumbers = Arrays.copyOf(roomNumbers, capacity);
+        checkIns = Arrays.copyOf(checkIns, capacity);
+        checkOuts = Arrays.copyOf(checkOuts, capacity);
+        paymentDates = Arrays.copyOf(paymentDates, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        paymentMethods = Arrays.copyOf(paymentMethods, capacity);
+    }
+
+    /**
+     * Booking view over one row of the store. It holds nothing but the row index;
+     * every getter and setter goes straight to the columns.
+     */
+    private final class View extends Booking {
+        private final int row;
+
+        private View(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getBookingId() {
+            return decodeId(bookingIds[row]);
+        }
+
+        @Override
+        public String getGustName() {
+            return guestNames.get(guestRefs[row]);
+        }
+
+        @Override
+        public Guest getGuest() {
+            return GuestDirectory.getDefault().intern(getGustName());
+        }
+
+        @Override
+        public Room getBookedRoom() {
+            return roomsByNumber.get(roomNumbers[row]);
+        }
+
+        @Override
+        public LocalDate getCheckIn() {
+            return LocalDate.ofEpochDay(checkIns[row]);
+        }
+
+        @Override
+        public LocalDate getCheckOut() {
+            return LocalDate.ofEpochDay(checkOuts[row]);
+        }
+
+        @Override
+        public BookingStatus getStatus() {
+            return BookingStatus.fromCode(statuses[row]);
+        }
+
+        @Override
+        public String getPaymentMethod() {
+            return decode(paymentMethodValues, paymentMethods[row]);
+        }
+
+        @Override
+        public LocalDate getPaymentDate() {
+            return fromEpochDay(paymentDates[row]);
+        }
+
+        @Override
+        public void setBookingId(String bookingId) {
+            unindexRow(row);
+            long old = bookingIds[row];
+            bookingIds[row] = encodeId(bookingId, old < 0 ? (int) ~old : NO_LEGACY_ID);
+            insertSlot(row);
+        }
+
+        @Override
+        public void setGustName(String gustName) {
+            guestRefs[row] = internGuest(gustName);
+        }
+
+        @Override
+        public void setBookedRoom(Room bookedRoom) {
+            roomsByNumber.putIfAbsent(bookedRoom.getRoomNumber(), bookedRoom);
+            roomNumbers[row] = bookedRoom.getRoomNumber();
+        }
+
+        @Override
+        public void setCheckIn(LocalDate checkIn) {
+            checkIns[row] = (int) checkIn.toEpochDay();
+        }
+
+        @Override
+        public void setCheckOut(LocalDate checkOut) {
+            checkOuts[row] = (int) checkOut.toEpochDay();
+        }
+
+        @Override
+        public void setStatus(BookingStatus status) {
+            statuses[row] = status.getCode();
+        }
+
+        @Override
+        public void setPaymentDate(LocalDate paymentDate) {
+            paymentDates[row] = toEpochDay(paymentDate);
+        }
+
+        @Override
+        public void setPaymentMethod(String paymentMethod) {
+            paymentMethods[row] = encode(paymentMethodValues, paymentMethod);
+        }
+    }
+}
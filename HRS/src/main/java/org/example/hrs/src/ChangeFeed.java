@@ -0,0 +1,472 @@
+package org.example.hrs.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Ordered, tailable log of every change made to a primary {@link Hotel}, from which
+ * {@link FeedReplica} instances keep their own in-memory copy up to date without
+ * reading MySQL.
+ *
+ * Each hotel event becomes one record holding a sequence number and the full state of
+ * the booking or room after the change, so applying a record needs nothing but the
+ * record. Records are appended to segment files named after their first sequence number
+ * and are visible to readers as soon as they are written; a reader tells a record still
+ * being written from a complete one by its length and checksum.
+ *
+ * Every time a segment fills up the feed also writes a snapshot tagged with the last
+ * sequence it contains, and only the newest segments are kept. A replica that falls
+ * further behind than that, or starts fresh, loads the snapshot and continues from
+ * the record after it. A RESET record tells replicas that the primary's state was
+ * replaced wholesale, e.g. reloaded from the database, and that they must reload the
+ * snapshot written just before it.
+ *
+ * Record layout: length (int), CRC32C of the body (int), then the body: sequence (long),
+ * primary time in millis (long), event type ordinal or -1 for RESET (byte), and the
+ * booking or room fields.
+ */
+public class ChangeFeed implements HotelListener, Closeable {
+
+    static final byte RESET = -1;
+    static final int HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 1 << 20;
+    static final String SEGMENT_PREFIX = "feed-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String SNAPSHOT_FILE = "feed.snap";
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * A decoded feed record.
+     */
+    static final class Record {
+        long sequence;
+        long timeMillis;
+        byte type;
+        // Booking records
+        String bookingId;
+        String guestName;
+        LocalDate checkIn;
+        LocalDate checkOut;
+        BookingStatus status;
+        String paymentMethod;
+        LocalDate paymentDate;
+        // Booking and room records
+        int roomNumber;
+        // Room records
+        Room.roomType roomType;
+        double price;
+        boolean inService;
+
+        boolean isReset() {
+            return type == RESET;
+        }
+
+        HotelEvent.Type eventType() {
+            return HotelEvent.Type.values()[type];
+        }
+    }
+
+    private final Hotel hotel;
+    private final Path dir;
+    private final long segmentBytes;
+    private final int retainSegments;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    private FileChannel segment;
+    private long nextSequence;
+    private boolean failed;
+
+    private ChangeFeed(Hotel hotel, Path dir, long segmentBytes, int retainSegments) {
+        this.hotel = hotel;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.retainSegments = retainSegments;
+    }
+
+    /**
+     * Gets the default feed directory of a property. The base directory can be changed with
+     * the {@code hrs.feed.dir} system property and defaults to ~/.hrs/feed; point primary and
+     * replicas at the same (shared) directory.
+     *
+     * @param propertyId The property ID.
+     * @return The property's feed directory.
+     */
+    public static Path defaultDirectory(int propertyId) {
+        String dir = System.getProperty("hrs.feed.dir",
+                Path.of(System.getProperty("user.home"), ".hrs", "feed").toString());
+        return Path.of(dir, "property-" + propertyId);
+    }
+
+    /**
+     * Starts publishing a hotel's changes. Continues the sequence of any feed already in the
+     * directory, writes a snapshot of the hotel's current state and appends a RESET record,
+     * so replicas resynchronise with whatever the hotel was loaded from.
+     *
+     * Segments roll over at {@code hrs.feed.segmentMB} megabytes (default 64) and the newest
+     * {@code hrs.feed.retainSegments} (default 4) are kept.
+     *
+     * @param hotel The primary hotel.
+     * @param dir   Feed directory.
+     * @return The running feed.
+     * @throws IOException If the directory or the feed files cannot be written.
+     */
+    public static ChangeFeed open(Hotel hotel, Path dir) throws IOException {
+        long segmentBytes = Long.getLong("hrs.feed.segmentMB", 64) << 20;
+        int retain = Math.max(1, Integer.getInteger("hrs.feed.retainSegments", 4));
+        ChangeFeed feed = new ChangeFeed(hotel, dir, segmentBytes, retain);
+        Files.createDirectories(dir);
+        synchronized (hotel) {
+            feed.resume();
+            feed.publishSnapshot();
+            hotel.getEvents().addListener(feed);
+        }
+        return feed;
+    }
+
+    /**
+     * Writes a snapshot of the hotel and appends a RESET record, making replicas reload.
+     * Call after replacing the hotel's state other than through its operations.
+     *
+     * @throws IOException If the snapshot or the record cannot be written.
+     */
+    public void publishSnapshot() throws IOException {
+        synchronized (hotel) {
+            synchronized (this) {
+                writeSnapshot(nextSequence);
+                buffer = begin(buffer, nextSequence, RESET);
+                append();
+            }
+        }
+    }
+
+    /**
+     * Appends the change to the feed. Runs under the hotel's lock, so records are in the
+     * order the changes were made.
+     */
+    @Override
+    public synchronized void onEvent(HotelEvent event) {
+        if (failed) {
+            return;
+        }
+        try {
+            buffer = begin(buffer, nextSequence, (byte) event.getType().ordinal());
+            if (event.getType() == HotelEvent.Type.ROOM_UPDATED) {
+                buffer = putRoom(buffer, event.getRoom());
+            } else {
+                buffer = putBooking(buffer, event.getBooking());
+            }
+            append();
+            if (segment.size() >= segmentBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            // Replicas stop advancing and their lag shows it; a restart resynchronises them
+            failed = true;
+            System.err.println("Error writing change feed " + dir + ", feed stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last record written.
+     *
+     * @return Last sequence number, 0 if none.
+     */
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * Tells whether the feed stopped after a write error.
+     *
+     * @return true if changes are no longer published.
+     */
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Stops publishing and closes the current segment.
+     *
+     * @throws IOException If closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        hotel.getEvents().removeListener(this);
+        synchronized (this) {
+            failed = true;
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Finds where an existing feed left off, cutting off a record the previous primary
+     * did not finish writing.
+     */
+    private void resume() throws IOException {
+        List<Long> segments = listSegments(dir);
+        nextSequence = 1;
+        if (segments.isEmpty()) {
+            openSegment();
+            return;
+        }
+        long first = segments.get(segments.size() - 1);
+        segment = FileChannel.open(segmentPath(dir, first), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Record record = new Record();
+        ByteBuffer scratch = ByteBuffer.allocate(512);
+        long position = 0;
+        nextSequence = first;
+        while (true) {
+            ByteBuffer body = read(segment, position, scratch, crc);
+            if (body == null) {
+                break;
+            }
+            scratch = body;
+            decode(scratch, record);
+            nextSequence = record.sequence + 1;
+            position += HEADER_BYTES + scratch.limit();
+        }
+        segment.truncate(position);
+        segment.position(position);
+        if (position >= segmentBytes) {
+            roll();
+        }
+    }
+
+    /**
+     * Starts a new segment, snapshots the state it starts from and drops old segments.
+     */
+    private void roll() throws IOException {
+        segment.close();
+        openSegment();
+        writeSnapshot(nextSequence - 1);
+        List<Long> segments = listSegments(dir);
+        for (int i = 0; i < segments.size() - retainSegments; i++) {
+            Files.deleteIfExists(segmentPath(dir, segments.get(i)));
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(segmentPath(dir, nextSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeSnapshot(long sequence) throws IOException {
+        if (!HotelSnapshot.write(hotel, dir.resolve(SNAPSHOT_FILE), sequence)) {
+            throw new IOException("Snapshot not written");
+        }
+    }
+
+    /**
+     * Frames the encoded body in the buffer with its length and checksum and writes it
+     * with a single append.
+     */
+    private void append() throws IOException {
+        int length = buffer.position() - HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+        nextSequence++;
+    }
+
+    private static ByteBuffer begin(ByteBuffer buf, long sequence, byte type) {
+        buf.clear();
+        buf.position(HEADER_BYTES);
+        buf.putLong(sequence);
+        buf.putLong(System.currentTimeMillis());
+        buf.put(type);
+        return buf;
+    }
+
+    private static ByteBuffer putBooking(ByteBuffer buf, Booking booking) {
+        buf = putString(buf, booking.getBookingId());
+        buf = putString(buf, booking.getGustName());
+        buf = ensure(buf, 21);
+        buf.putInt(booking.getBookedRoom().getRoomNumber());
+        buf.putInt((int) booking.getCheckIn().toEpochDay());
+        buf.putInt((int) booking.getCheckOut().toEpochDay());
+        buf.put(booking.getStatus().getCode());
+        buf.putInt(booking.getPaymentDate() == null ? NO_DATE : (int) booking.getPaymentDate().toEpochDay());
+        return putString(buf, booking.getPaymentMethod());
+    }
+
+    private static ByteBuffer putRoom(ByteBuffer buf, Room room) {
+        buf = ensure(buf, 14);
+        buf.putInt(room.getRoomNumber());
+        buf.put((byte) room.getType().ordinal());
+        buf.putDouble(room.getPricePerNight());
+        buf.put((byte) (room.isAvailable() ? 1 : 0));
+        return buf;
+    }
+
+    /**
+     * Writes a string as a 4-byte length followed by its UTF-8 bytes; length -1 means null.
+     */
+    private static ByteBuffer putString(ByteBuffer buf, String value) {
+        if (value == null) {
+            buf = ensure(buf, 4);
+            buf.putInt(-1);
+            return buf;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buf = ensure(buf, 4 + bytes.length);
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+        return buf;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buf, int bytes) {
+        if (buf.remaining() >= bytes) {
+            return buf;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+
+    /**
+     * Reads the body of the complete record at a position of a segment.
+     *
+     * @param channel  The segment.
+     * @param position Start of the record.
+     * @param buf      Buffer to read into; replaced if too small.
+     * @param crc      Checksum to verify with.
+     * @return The body, flipped for reading, or null if no complete, intact record is
+     *         there (yet).
+     * @throws IOException If reading fails.
+     */
+    static ByteBuffer read(FileChannel channel, long position, ByteBuffer buf, CRC32C crc) throws IOException {
+        long available = channel.size() - position;
+        if (available < HEADER_BYTES) {
+            return null;
+        }
+        buf.clear().limit(HEADER_BYTES);
+        if (!readFully(channel, position, buf)) {
+            return null;
+        }
+        int length = buf.getInt(0);
+        int checksum = buf.getInt(4);
+        if (length <= 0 || length > MAX_RECORD_BYTES || available - HEADER_BYTES < length) {
+            return null;
+        }
+        if (buf.capacity() < length) {
+            buf = ByteBuffer.allocate(Math.max(length, buf.capacity() * 2));
+        }
+        buf.clear().limit(length);
+        if (!readFully(channel, position + HEADER_BYTES, buf)) {
+            return null;
+        }
+        crc.reset();
+        crc.update(buf.array(), 0, length);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static boolean readFully(FileChannel channel, long position, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a record body into a reusable record.
+     *
+     * @param buf    The body, as returned by {@link #read}.
+     * @param record Receives the fields.
+     */
+    static void decode(ByteBuffer buf, Record record) {
+        record.sequence = buf.getLong();
+        record.timeMillis = buf.getLong();
+        record.type = buf.get();
+        if (record.isReset()) {
+            return;
+        }
+        if (record.eventType() == HotelEvent.Type.ROOM_UPDATED) {
+            record.bookingId = null;
+            record.roomNumber = buf.getInt();
+            record.roomType = Room.roomType.values()[buf.get()];
+            record.price = buf.getDouble();
+            record.inService = buf.get() != 0;
+            return;
+        }
+        record.bookingId = getString(buf);
+        record.guestName = getString(buf);
+        record.roomNumber = buf.getInt();
+        record.checkIn = LocalDate.ofEpochDay(buf.getInt());
+        record.checkOut = LocalDate.ofEpochDay(buf.getInt());
+        record.status = BookingStatus.fromCode(buf.get());
+        int paymentDate = buf.getInt();
+        record.paymentDate = paymentDate == NO_DATE ? null : LocalDate.ofEpochDay(paymentDate);
+        record.paymentMethod = getString(buf);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return value;
+    }
+
+    /**
+     * Lists the first sequence numbers of the segments in a feed directory, oldest first.
+     *
+     * @param dir Feed directory.
+     * @return Sorted first sequence numbers; empty if there is no feed.
+     * @throws IOException If the directory cannot be listed.
+     */
+    static List<Long> listSegments(Path dir) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static Path segmentPath(Path dir, long firstSequence) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+}
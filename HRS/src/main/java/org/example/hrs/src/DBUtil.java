@@ -1,31 +1,403 @@
 package org.example.hrs.src;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class to manage database connections for the Hotel Reservation System.
  * Uses JDBC to connect to a MySQL database.
+ *
+ * Connections come from pools: one for the primary database, which takes every write,
+ * and one per read replica listed in {@code hrs.db.replicas}. Reads that can live with
+ * replication lag ask for {@link #getReadConnection()}, which spreads them round-robin
+ * over the replicas that pass their health checks and falls back to the primary when
+ * none does. A thread that just used the primary keeps reading from it for the
+ * read-your-writes window, so a desk sees its own changes straight away.
+ *
+ * The first connection handed out also brings the schema up to date by applying
+ * any pending versioned migration scripts from {@code org/example/hrs/migrations}.
+ *
+ * Settings (system properties):
+ * - hrs.db.url, hrs.db.user, hrs.db.password   the primary; replicas use the same credentials
+ * - hrs.db.replicas                            comma-separated JDBC URLs of read replicas
+ * - hrs.db.poolSize                            connections per pool (default 10)
+ * - hrs.db.readYourWritesMillis                window after a primary use (default 1000, 0 = off)
+ * - hrs.db.healthCheckMillis                   time between replica checks (default 5000)
+ * - hrs.db.maxReplicaLagSeconds                replication lag beyond which a replica is skipped (default 30)
  */
 public class DBUtil {
 
-    // JDBC connection URL to the MySQL database
-    private static final String URL = "jdbc:mysql://localhost:3306/hotel_reservation_system";
+    // JDBC connection URL to the primary MySQL database
+    private static final String URL = System.getProperty("hrs.db.url",
+            "jdbc:mysql://localhost:3306/hotel_reservation_system");
 
     // Database user credentials
-    private static final String USER = "root";
-    private static final String PASSWORD = "habib@123";
+    private static final String USER = System.getProperty("hrs.db.user", "root");
+    private static final String PASSWORD = System.getProperty("hrs.db.password", "habib@123");
+
+    // Read replicas; empty when all reads go to the primary
+    private static final String REPLICA_URLS = System.getProperty("hrs.db.replicas", "");
+
+    private static final long READ_YOUR_WRITES_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("hrs.db.readYourWritesMillis", 1000));
+    private static final long HEALTH_CHECK_MILLIS = Long.getLong("hrs.db.healthCheckMillis", 5000);
+    private static final long MAX_REPLICA_LAG_SECONDS = Long.getLong("hrs.db.maxReplicaLagSeconds", 30);
 
     /**
-     * Establishes and returns a connection to the MySQL database.
+     * A read replica's pool and whether it currently takes reads.
+     */
+    private static final class Replica {
+        private final String url;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String url, HikariDataSource dataSource) {
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private static HikariDataSource primary;
+    private static List<Replica> replicas;
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+
+    // When the current thread last took a primary connection, in System.nanoTime()
+    private static final ThreadLocal<long[]> lastPrimaryUse = ThreadLocal.withInitial(() -> new long[]{0});
+
+    // Migration scripts in the order they must be applied; the version is the V<n> prefix.
+    // Each must be safe to run again after failing partway, see applyMigration.
+    private static final String MIGRATION_PATH = "/org/example/hrs/migrations/";
+    private static final String[] MIGRATIONS = {
+            "V1__baseline_schema.sql",
+            "V2__booking_status_codes.sql",
+            "V3__booking_indexes.sql",
+            "V4__bookings_archive.sql",
+            "V5__property_ids.sql",
+            "V6__change_timestamps.sql",
+            "V7__payment_ledger.sql",
+            "V8__room_in_service.sql",
+            "V9__guests.sql"
+    };
+
+    // Named lock so that several HRS instances starting together migrate only once
+    private static final String MIGRATION_LOCK = "hrs_schema_migration";
+
+    private static volatile boolean migrated = false;
+
+    /**
+     * Returns a connection to the primary database, for writes and for reads that must see
+     * the latest data. Starts the current thread's read-your-writes window.
+     * Pending schema migrations are applied before the first connection is returned.
      *
      * @return A {@link Connection} object to interact with the database.
-     * @throws SQLException If the connection fails (e.g., wrong credentials, server not running).
+     * @throws SQLException If the connection fails (e.g., wrong credentials, server not running)
+     *                      or a migration cannot be applied.
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        if (!migrated) {
+            migrate();
+        }
+        Connection conn = primary().getConnection();
+        lastPrimaryUse.get()[0] = System.nanoTime();
+        return conn;
+    }
+
+    /**
+     * Returns a connection for reads that may be slightly behind the primary: to the next
+     * healthy replica in turn, or to the primary if there is none, if none can be reached,
+     * or if the current thread is within its read-your-writes window.
+     *
+     * @return A {@link Connection} to read from.
+     * @throws SQLException If neither a replica nor the primary can be reached.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (!migrated) {
+            migrate();
+        }
+        List<Replica> all = replicas();
+        long lastUse = lastPrimaryUse.get()[0];
+        boolean readYourWrites = lastUse != 0 && System.nanoTime() - lastUse < READ_YOUR_WRITES_NANOS;
+        if (!all.isEmpty() && !readYourWrites) {
+            int start = nextReplica.getAndIncrement();
+            for (int i = 0; i < all.size(); i++) {
+                Replica replica = all.get(Math.floorMod(start + i, all.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    System.err.println("Error connecting to replica " + replica.url + ", reading elsewhere: "
+                            + e.getMessage());
+                }
+            }
+        }
+        // Does not extend the read-your-writes window: only writers' connections do
+        return primary().getConnection();
     }
-}
 
+    /**
+     * Counts the replicas that currently take reads.
+     *
+     * @return Number of healthy replicas; 0 if none are configured.
+     */
+    public static int getHealthyReplicaCount() {
+        int healthy = 0;
+        for (Replica replica : replicas()) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    private static synchronized HikariDataSource primary() {
+        if (primary == null) {
+            primary = createPool("hrs-primary", URL, 5000);
+        }
+        return primary;
+    }
+
+    /**
+     * Creates the replica pools and starts their health checks on first use.
+     */
+    private static synchronized List<Replica> replicas() {
+        if (replicas != null) {
+            return replicas;
+        }
+        List<Replica> created = new ArrayList<>();
+        for (String url : REPLICA_URLS.split(",")) {
+            if (!url.isBlank()) {
+                created.add(new Replica(url.trim(), createPool("hrs-replica-" + created.size(), url.trim(), 1000)));
+            }
+        }
+        replicas = List.copyOf(created);
+        if (!replicas.isEmpty()) {
+            ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "db-replica-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checker.scheduleWithFixedDelay(DBUtil::checkReplicas, HEALTH_CHECK_MILLIS, HEALTH_CHECK_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        return replicas;
+    }
+
+    /**
+     * Creates a pool that connects lazily, so an unreachable database fails the first
+     * getConnection() after the timeout rather than startup.
+     */
+    private static HikariDataSource createPool(String name, String url, long connectionTimeoutMillis) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+        config.setMaximumPoolSize(Integer.getInteger("hrs.db.poolSize", 10));
+        config.setConnectionTimeout(connectionTimeoutMillis);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Takes replicas that cannot be reached, or lag too far behind, out of the read rotation,
+     * and puts recovered ones back.
+     */
+    private static void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection conn = replica.dataSource.getConnection()) {
+                healthy = conn.isValid(2) && replicationLagOk(conn);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                System.err.println("Replica " + replica.url + (healthy ? " is back in" : " taken out of") + " the read rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
 
+    /**
+     * Checks the replication delay a replica reports. A server that is not replicating from
+     * anything (e.g. a second local instance in tests), or does not let us ask, passes.
+     */
+    private static boolean replicationLagOk(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return true;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            if (rs.wasNull()) {
+                return false; // Replication is stopped
+            }
+            return lag <= MAX_REPLICA_LAG_SECONDS;
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Reads the database server's current time, the clock that updated_at columns are stamped with.
+     *
+     * @return Current database time, or null if the database cannot be reached.
+     */
+    public static Timestamp currentTimestamp() {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP(3)")) {
+            return rs.next() ? rs.getTimestamp(1) : null;
+        } catch (SQLException e) {
+            System.err.println("Error reading database time: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Applies every migration script that is not yet recorded in the schema_version table.
+     * Safe to call repeatedly; it does nothing once the schema is current.
+     *
+     * @throws SQLException If a migration fails. Already applied scripts stay recorded,
+     *                      and the failed one is retried on the next call.
+     */
+    public static synchronized void migrate() throws SQLException {
+        if (migrated) {
+            return;
+        }
+        // Replicas receive the schema changes through replication
+        try (Connection conn = primary().getConnection()) {
+            acquireMigrationLock(conn);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                            "version INT NOT NULL PRIMARY KEY, " +
+                            "script VARCHAR(100) NOT NULL, " +
+                            "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+                }
+
+                int current = currentVersion(conn);
+                for (String script : MIGRATIONS) {
+                    int version = versionOf(script);
+                    if (version > current) {
+                        applyMigration(conn, version, script);
+                        System.out.println("Applied schema migration " + script);
+                    }
+                }
+            } finally {
+                releaseMigrationLock(conn);
+            }
+        }
+        migrated = true;
+    }
+
+    /**
+     * Reads the highest applied migration version.
+     */
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Runs the statements of one migration script and records it as applied.
+     * MySQL commits DDL implicitly, so a script that fails partway has some of its changes
+     * applied but is not recorded, and is run again from the top on the next call. Every
+     * script must therefore be idempotent: tables are created IF NOT EXISTS, and columns
+     * and indexes are only added or dropped after checking information_schema.
+     */
+    private static void applyMigration(Connection conn, int version, String script) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : readStatements(script)) {
+                stmt.execute(sql);
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Loads a migration script and splits it into statements on semicolons at line ends,
+     * dropping "--" comment lines.
+     */
+    private static List<String> readStatements(String script) throws SQLException {
+        String text;
+        try (InputStream in = DBUtil.class.getResourceAsStream(MIGRATION_PATH + script)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found: " + script);
+            }
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read migration script " + script, e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * Extracts the version number from a script name of the form V&lt;n&gt;__description.sql.
+     */
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static void acquireMigrationLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 60)")) {
+            stmt.setString(1, MIGRATION_LOCK);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for schema migration lock");
+                }
+            }
+        }
+    }
+
+    private static void releaseMigrationLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, MIGRATION_LOCK);
+            stmt.executeQuery().close();
+        }
+    }
+}
@@ -3,9 +3,6 @@ package org.example.hrs.src;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
-import java.net.URL;
-import javax.imageio.ImageIO;
 /**
  * Dashboard - The entry point GUI for the Luxury Hotel Reservation System
  *
@@ -16,7 +13,7 @@ import javax.imageio.ImageIO;
  *
  * Features:
  * - Layered UI with semi-transparent overlay
- * - Responsive background image loading
+ * - Background image loaded off the EDT, window shows immediately
  * - Professional button with hover effects
  * - Clean, modern design
  */
@@ -92,42 +89,21 @@ public class Dashboard {
         frame.setVisible(true);
     }
     /**
-     * Creates the background with fallback options:
-     * 1. Tries loading from absolute path
-     * 2. Falls back to embedded resource
-     * 3. Final fallback to solid color
-     * @return JLabel containing the background image/color
+     * Creates the background without blocking the window:
+     * 1. Shows a solid color placeholder right away
+     * 2. Loads the image in the background, from the absolute path or the embedded resource
+     * 3. Swaps the scaled image in once it is ready
+     * @return JLabel containing the background color, later the image
      */
     private static JLabel createBackground() {
-        try {
-            // Try loading from absolute path first
-            String absPath = "C:/Users/Habibullah Khaliqyar/Desktop/HRS/image.jpg";
-            File file = new File(absPath);
-
-            if (file.exists()) {
-                Image image = ImageIO.read(file);
-                if (image != null) {
-                    image = image.getScaledInstance(1200, 700, Image.SCALE_SMOOTH);
-                    return new JLabel(new ImageIcon(image));
-                }
-            }
-
-            // Fallback to resource
-            URL resourceUrl = Dashboard.class.getResource("/resources/hotel_bg.jpg");
-            if (resourceUrl != null) {
-                Image image = ImageIO.read(resourceUrl);
-                image = image.getScaledInstance(1200, 700, Image.SCALE_SMOOTH);
-                return new JLabel(new ImageIcon(image));
-            }
-        } catch (Exception e) {
-            System.err.println("Error loading background: " + e.getMessage());
-        }
-
-        // Final fallback - solid color
-        JLabel fallback = new JLabel();
-        fallback.setOpaque(true);
-        fallback.setBackground(new Color(8, 40, 77)); // Dark blue
-        return fallback;
+        JLabel background = new JLabel();
+        background.setOpaque(true);
+        background.setBackground(new Color(8, 40, 77)); // Dark blue
+
+        ImageLoader.load(1200, 700, background::setIcon,
+                "C:/Users/Habibullah Khaliqyar/Desktop/HRS/image.jpg",
+                "/resources/hotel_bg.jpg");
+        return background;
     }
     /**
      * Creates the main entry button with:
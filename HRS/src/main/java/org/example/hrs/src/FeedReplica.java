@@ -0,0 +1,348 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps a read-mostly {@link Hotel} in step with a primary instance by tailing the
+ * primary's {@link ChangeFeed}, so kiosks and reporting instances never load from MySQL.
+ *
+ * A background thread polls the feed every {@code hrs.feed.pollMillis} milliseconds
+ * (default 50) and applies the new records in order, at most {@link #MAX_BATCH} per poll,
+ * so a replica trails the primary by roughly one poll interval. It starts from the feed's
+ * snapshot, and goes back to the snapshot whenever the primary resets the feed or the
+ * records it needs next have already been deleted.
+ *
+ * The replica hotel should not write to the database and should not be changed other
+ * than through the feed; such changes are overwritten by the next snapshot. Payments,
+ * the ledger and the waitlist are not replicated.
+ */
+public class FeedReplica {
+
+    public static final int MAX_BATCH = 10_000;
+
+    // Polls a partial record may stay unreadable before it counts as corrupt
+    private static final int MAX_STALLED_POLLS = 100;
+
+    private final Hotel hotel;
+    private final Path dir;
+    private final long pollMillis;
+    private final CRC32C crc = new CRC32C();
+    private final ChangeFeed.Record record = new ChangeFeed.Record();
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    private FileChannel segment;
+    private long segmentFirst;
+    private long position;
+    private int stalledPolls;
+    private long nextSequence = 1;
+    private boolean needsSnapshot = true;
+    private long minSnapshotSequence;
+    private LocalDate archivedOn = LocalDate.now();
+
+    private volatile long appliedSequence;
+    private volatile long lagMillis;
+    private volatile long lastPollMillis;
+    private volatile long snapshotLoads;
+    private Thread worker;
+
+    /**
+     * Constructs a replica of a property's hotel, polling its feed every
+     * {@code hrs.feed.pollMillis} milliseconds (default 50).
+     *
+     * @param hotel The replica hotel, normally empty and with write-through off.
+     * @param dir   The primary's feed directory.
+     */
+    public FeedReplica(Hotel hotel, Path dir) {
+        this(hotel, dir, Long.getLong("hrs.feed.pollMillis", 50));
+    }
+
+    /**
+     * Constructs a replica of a property's hotel.
+     *
+     * @param hotel      The replica hotel, normally empty and with write-through off.
+     * @param dir        The primary's feed directory.
+     * @param pollMillis Time between polls of the feed.
+     */
+    public FeedReplica(Hotel hotel, Path dir, long pollMillis) {
+        this.hotel = hotel;
+        this.dir = dir;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Starts following the feed on a background thread.
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::run, "feed-replica");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops following the feed. The hotel keeps the state reached so far.
+     */
+    public synchronized void stop() {
+        if (worker == null) {
+            return;
+        }
+        worker.interrupt();
+        worker = null;
+    }
+
+    /**
+     * Applies the records written since the last poll, up to {@link #MAX_BATCH}, loading
+     * the snapshot first if needed. Called by the background thread; call directly to
+     * drive a replica that was not started.
+     *
+     * @return Number of records applied.
+     * @throws IOException If the feed cannot be read.
+     */
+    public synchronized int poll() throws IOException {
+        long now = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        if (!today.equals(archivedOn)) {
+            archivedOn = today; // The primary archives without publishing, so follow suit
+            hotel.archiveHistory(today);
+        }
+        int applied = 0;
+        long oldest = 0;
+        while (applied < MAX_BATCH) {
+            if (needsSnapshot && !catchUp()) {
+                break;
+            }
+            if (segment == null && !openSegment()) {
+                break;
+            }
+            ByteBuffer body = ChangeFeed.read(segment, position, buffer, crc);
+            if (body == null) {
+                if (!nextSegment()) {
+                    break;
+                }
+                continue;
+            }
+            buffer = body;
+            stalledPolls = 0;
+            position += ChangeFeed.HEADER_BYTES + body.limit();
+            ChangeFeed.decode(body, record);
+            if (record.sequence < nextSequence) {
+                continue; // Already in the snapshot
+            }
+            if (record.sequence > nextSequence) {
+                System.err.println("Change feed " + dir + " skips from " + nextSequence + " to "
+                        + record.sequence + ", reloading snapshot");
+                resync(record.sequence - 1);
+                continue;
+            }
+            if (record.isReset()) {
+                resync(record.sequence);
+                continue;
+            }
+            if (applied == 0) {
+                oldest = record.timeMillis;
+            }
+            apply(record);
+            nextSequence++;
+            appliedSequence = record.sequence;
+            applied++;
+        }
+        lagMillis = applied == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+        lastPollMillis = now;
+        return applied;
+    }
+
+    /**
+     * Gets the sequence number of the last feed record applied.
+     *
+     * @return Applied sequence number, or the snapshot's if no record was applied since.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Gets how far the replica trailed the primary at the last poll: the time from the
+     * primary writing the oldest change that poll applied to that change being applied.
+     *
+     * @return Lag in milliseconds, 0 if the last poll found nothing new.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * Gets how long ago the feed was last polled, which bounds how stale the replica's
+     * view of the feed is.
+     *
+     * @return Milliseconds since the last poll, or -1 if never polled.
+     */
+    public long getMillisSinceLastPoll() {
+        long last = lastPollMillis;
+        return last == 0 ? -1 : System.currentTimeMillis() - last;
+    }
+
+    /**
+     * Gets how often the replica loaded the feed's snapshot.
+     *
+     * @return Number of snapshot loads.
+     */
+    public long getSnapshotLoads() {
+        return snapshotLoads;
+    }
+
+    /**
+     * Loads the feed's snapshot and continues from the record after it.
+     *
+     * @return true if loaded, false if there is no recent enough snapshot yet.
+     */
+    private boolean catchUp() throws IOException {
+        closeSegment();
+        HotelSnapshot snapshot = HotelSnapshot.read(dir.resolve(ChangeFeed.SNAPSHOT_FILE), hotel.getPropertyId());
+        if (snapshot == null || snapshot.getFeedSequence() < minSnapshotSequence) {
+            return false;
+        }
+        hotel.restore(snapshot);
+        nextSequence = snapshot.getFeedSequence() + 1;
+        appliedSequence = snapshot.getFeedSequence();
+        needsSnapshot = false;
+        minSnapshotSequence = 0;
+        snapshotLoads++;
+        return true;
+    }
+
+    /**
+     * Opens the segment holding the next record.
+     *
+     * @return true if opened, false if there is no such segment (yet).
+     */
+    private boolean openSegment() throws IOException {
+        List<Long> segments = ChangeFeed.listSegments(dir);
+        long first = -1;
+        for (long candidate : segments) {
+            if (candidate <= nextSequence) {
+                first = candidate;
+            }
+        }
+        if (first < 0) {
+            // The records we need were deleted, or the feed has not started yet
+            if (!segments.isEmpty()) {
+                resync(segments.get(0) - 1);
+            }
+            return false;
+        }
+        try {
+            segment = FileChannel.open(ChangeFeed.segmentPath(dir, first), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            resync(nextSequence - 1); // Deleted while we looked
+            return false;
+        }
+        segmentFirst = first;
+        position = 0;
+        stalledPolls = 0;
+        return true;
+    }
+
+    /**
+     * Moves on at the end of a segment once the primary has started the next one.
+     *
+     * @return true if another segment was opened, false to wait for more records.
+     */
+    private boolean nextSegment() throws IOException {
+        if (position < segment.size()) {
+            // A record still being written, or a damaged one if it stays that way
+            if (++stalledPolls > MAX_STALLED_POLLS) {
+                System.err.println("Unreadable record in change feed " + dir + ", reloading snapshot");
+                resync(nextSequence);
+                return true;
+            }
+            return false;
+        }
+        long next = -1;
+        for (long first : ChangeFeed.listSegments(dir)) {
+            if (first > segmentFirst) {
+                next = first;
+                break;
+            }
+        }
+        if (next < 0) {
+            return false;
+        }
+        // The primary only starts a segment once the previous one is complete
+        if (next != nextSequence) {
+            resync(next - 1);
+        }
+        closeSegment();
+        return true;
+    }
+
+    /**
+     * Makes the next poll load a snapshot that includes at least the given record.
+     */
+    private void resync(long minSequence) {
+        needsSnapshot = true;
+        minSnapshotSequence = minSequence;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    /**
+     * Applies one booking or room record to the hotel.
+     */
+    private void apply(ChangeFeed.Record change) {
+        int propertyId = hotel.getPropertyId();
+        if (change.eventType() == HotelEvent.Type.ROOM_UPDATED) {
+            hotel.applyRoomChange(new Room(propertyId, change.roomNumber, change.roomType, change.price,
+                    change.inService));
+            return;
+        }
+        // The hotel matches the room by number and books its own instance
+        Room room = new Room(propertyId, change.roomNumber, Room.roomType.STANDARD, 0, true);
+        Booking booking = new Booking(change.guestName, room, change.bookingId, change.checkIn, change.checkOut);
+        booking.setStatus(change.status);
+        booking.setPaymentMethod(change.paymentMethod);
+        booking.setPaymentDate(change.paymentDate);
+        if (!hotel.applyBookingChange(change.eventType(), booking)) {
+            System.err.println("Change feed " + dir + " record " + change.sequence + " refers to unknown room "
+                    + change.roomNumber + ", skipped");
+        }
+    }
+
+    /**
+     * Background loop: polls the feed until stopped.
+     */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                poll();
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reading change feed " + dir + ": " + e.getMessage());
+                synchronized (this) {
+                    resync(0);
+                }
+                try {
+                    Thread.sleep(pollMillis * 10);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.hrs.src;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A guest, shared by all of the guest's bookings through the {@link GuestDirectory}.
+ *
+ * Guests are identified by a normalized key derived from the name: accents stripped,
+ * lower-cased and with runs of whitespace collapsed, so "José  Pérez" and "jose perez"
+ * are the same guest. This matches the accent- and case-insensitive collation of the
+ * guests.guest_key column.
+ */
+public class Guest {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String key;
+    private final String name;
+    private volatile long guestId;
+    private volatile boolean stayed;
+
+    /**
+     * Constructs a guest that is not stored in the database yet.
+     *
+     * @param name The guest's name as first entered.
+     */
+    public Guest(String name) {
+        this.key = normalize(name);
+        this.name = name;
+    }
+
+    /**
+     * Derives the key that identifies a guest from a name.
+     *
+     * @param name A guest name in any spelling.
+     * @return The normalized key.
+     */
+    public static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        String unaccented = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(unaccented.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the normalized key identifying the guest.
+     *
+     * @return The guest key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the guest's name as first entered.
+     *
+     * @return The display name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the guest's row ID in the guests table.
+     *
+     * @return Guest ID, or 0 if not stored yet.
+     */
+    public long getGuestId() {
+        return guestId;
+    }
+
+    /**
+     * Sets the guest's row ID once stored.
+     *
+     * @param guestId The guest ID.
+     */
+    public void setGuestId(long guestId) {
+        this.guestId = guestId;
+    }
+
+    /**
+     * Tells whether one of the guest's bookings in this instance was checked in.
+     *
+     * @return true if the guest is known to have stayed.
+     */
+    public boolean hasStayed() {
+        return stayed;
+    }
+
+    /**
+     * Records that one of the guest's bookings was checked in.
+     */
+    void markStayed() {
+        stayed = true;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.hrs.src;
+
+import java.sql.*;
+import java.util.function.Consumer;
+
+/**
+ * Data Access Object (DAO) class for the `guests` table, created by the V9 schema migration.
+ * Bookings refer to their guest through bookings.guest_id.
+ */
+public class GuestDAO {
+
+    // Bookings whose guest got as far as checking in
+    private static final String STAYED = "status IN (" + BookingStatus.CHECKED_IN.getCode() + ", "
+            + BookingStatus.CHECKED_OUT.getCode() + ")";
+
+    /**
+     * Stores a guest if its key is new and sets its guest ID either way.
+     *
+     * @param guest The guest, or null.
+     * @return The guest ID, or 0 if there is no guest or it could not be stored.
+     */
+    public static long saveGuest(Guest guest) {
+        if (guest == null) {
+            return 0;
+        }
+        if (guest.getGuestId() != 0) {
+            return guest.getGuestId();
+        }
+        // LAST_INSERT_ID(guest_id) makes the generated key the existing row's ID on a duplicate
+        String sql = "INSERT INTO guests (guest_key, full_name) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE guest_id = LAST_INSERT_ID(guest_id)";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setString(1, guest.getKey());
+            stmt.setString(2, guest.getName());
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    guest.setGuestId(keys.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving guest: " + e.getMessage());
+        }
+        return guest.getGuestId();
+    }
+
+    /**
+     * Checks whether a guest has checked in before in any property, live or archived.
+     *
+     * @param guestKey The guest's normalized key.
+     * @return true if one of the guest's bookings was checked in.
+     */
+    public static boolean hasStayed(String guestKey) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM bookings b JOIN guests g ON g.guest_id = b.guest_id " +
+                "WHERE g.guest_key = ? AND b." + STAYED + ") " +
+                "OR EXISTS (SELECT 1 FROM bookings_archive a JOIN guests g ON g.guest_id = a.guest_id " +
+                "WHERE g.guest_key = ? AND a." + STAYED + ")";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, guestKey);
+            stmt.setString(2, guestKey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error looking up guest: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Streams the keys of every guest who has checked in before, in any property.
+     *
+     * @param consumer Receives the guest keys.
+     * @return true if every key was read, false if the query failed.
+     */
+    public static boolean forEachStayedGuestKey(Consumer<String> consumer) {
+        String sql = "SELECT g.guest_key FROM guests g WHERE " +
+                "EXISTS (SELECT 1 FROM bookings b WHERE b.guest_id = g.guest_id AND b." + STAYED + ") " +
+                "OR EXISTS (SELECT 1 FROM bookings_archive a WHERE a.guest_id = g.guest_id AND a." + STAYED + ")";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString(1));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error loading guests: " + e.getMessage());
+            return false;
+        }
+    }
+}
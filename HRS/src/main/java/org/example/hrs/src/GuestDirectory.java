@@ -0,0 +1,163 @@
+package org.example.hrs.src;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide directory of guests. Every booking resolves its guest name here, so a
+ * repeat guest is one shared {@link Guest} however many bookings they have and however
+ * their name was typed.
+ *
+ * The directory also answers "has this guest stayed before" at check-in. Guests who have
+ * checked in are added to a {@link BloomFilter}: resident ones as hotels load or check
+ * them in, and those of every property and of the archive by {@link #loadFromDatabase()}.
+ * A name the filter has never seen is a first-time guest, answered without a lookup;
+ * only probable matches are confirmed, from the resident guest or else the database.
+ *
+ * The filter is sized with {@code hrs.guests.expected} (default 1,000,000 guests) at
+ * a 1% false positive rate.
+ */
+public class GuestDirectory implements HotelListener {
+
+    private final Map<String, Guest> guests = new ConcurrentHashMap<>();
+
+    // Guests by exact spelling, so repeat bookings skip normalizing the name
+    private final Map<String, Guest> bySpelling = new ConcurrentHashMap<>();
+
+    private final BloomFilter stayed;
+    private volatile boolean loaded;
+
+    /**
+     * Constructs an empty directory.
+     *
+     * @param expectedGuests Number of guests who have stayed that the filter is sized for.
+     */
+    public GuestDirectory(long expectedGuests) {
+        this.stayed = new BloomFilter(expectedGuests, 0.01);
+    }
+
+    /**
+     * Gets the directory shared by all hotels of this process.
+     *
+     * @return The default directory.
+     */
+    public static GuestDirectory getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class DefaultHolder {
+        private static final GuestDirectory INSTANCE =
+                new GuestDirectory(Long.getLong("hrs.guests.expected", 1_000_000));
+    }
+
+    /**
+     * Gets the guest for a name, creating it the first time its key is seen.
+     *
+     * @param name The guest name in any spelling.
+     * @return The shared guest, or null for a null name.
+     */
+    public Guest intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        Guest guest = bySpelling.get(name);
+        if (guest == null) {
+            guest = guests.computeIfAbsent(Guest.normalize(name), key -> new Guest(name));
+            bySpelling.putIfAbsent(name, guest);
+        }
+        return guest;
+    }
+
+    /**
+     * Finds a guest without creating one.
+     *
+     * @param name The guest name in any spelling.
+     * @return The guest, or null if no booking in this process used the name.
+     */
+    public Guest find(String name) {
+        if (name == null) {
+            return null;
+        }
+        Guest guest = bySpelling.get(name);
+        return guest != null ? guest : guests.get(Guest.normalize(name));
+    }
+
+    /**
+     * Tells whether a guest has checked in before. Call before checking the current
+     * booking in, as that check-in counts too.
+     *
+     * @param name The guest name in any spelling.
+     * @return true if the guest stayed in any property before.
+     */
+    public boolean isReturningGuest(String name) {
+        if (name == null) {
+            return false;
+        }
+        String key = Guest.normalize(name);
+        if (!stayed.mightContain(key)) {
+            return false;
+        }
+        Guest guest = guests.get(key);
+        if (guest != null && guest.hasStayed()) {
+            return true;
+        }
+        // A guest known only from the database, or a false positive
+        return loaded && GuestDAO.hasStayed(key);
+    }
+
+    /**
+     * Adds every guest who has checked in, in any property or the archive, to the filter.
+     *
+     * @return true if loaded, false if the database could not be read.
+     */
+    public boolean loadFromDatabase() {
+        loaded = GuestDAO.forEachStayedGuestKey(stayed::add);
+        return loaded;
+    }
+
+    /**
+     * Records the guests of bookings that were checked in, e.g. after a hotel loaded them.
+     *
+     * @param bookings Bookings to look at.
+     */
+    public void recordStays(Iterable<Booking> bookings) {
+        for (Booking booking : bookings) {
+            recordStay(booking);
+        }
+    }
+
+    /**
+     * Records the guest of a booking as having stayed once the booking is checked in.
+     *
+     * @param booking The booking.
+     */
+    public void recordStay(Booking booking) {
+        BookingStatus status = booking.getStatus();
+        if (status == BookingStatus.CHECKED_IN || status == BookingStatus.CHECKED_OUT) {
+            Guest guest = booking.getGuest();
+            if (guest != null && !guest.hasStayed()) {
+                guest.markStayed();
+                stayed.add(guest.getKey());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of distinct guests seen by this process.
+     *
+     * @return Number of guests.
+     */
+    public int size() {
+        return guests.size();
+    }
+
+    /**
+     * Records check-ins as hotels publish them.
+     */
+    @Override
+    public void onEvent(HotelEvent event) {
+        if (event.getType() == HotelEvent.Type.STATUS_CHANGED && event.getBooking() != null) {
+            recordStay(event.getBooking());
+        }
+    }
+}
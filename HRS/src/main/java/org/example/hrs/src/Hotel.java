@@ -1,5 +1,7 @@
 package org.example.hrs.src;
 
+import java.nio.file.Path;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -7,33 +9,105 @@ import java.util.*;
 /**
  * Represents the core Hotel system containing rooms and bookings,
  * and provides functionality to manage them (e.g., booking, cancellation, availability checking, etc.).
+ * Operations are synchronized on the hotel, so one instance can be shared between threads.
  */
 public class Hotel {
 
+    private final int propertyId;
     private List<Room> allRoom;
     private List<Booking> allBookings;
 
+    // Requests waiting for a room to free up
+    private final Waitlist waitlist = new Waitlist();
+
+    // Charges and refunds, append-only
+    private final PaymentLedger ledger = new PaymentLedger();
+
+    // Listeners notified of every change
+    private final HotelEventBus events = new HotelEventBus();
+
+    // Stream of per-night availability changes; created on first use
+    private AvailabilityPublisher availabilityPublisher;
+
+    // Results of recent availability searches, invalidated by the events above
+    private final AvailabilityCache availabilityCache =
+            new AvailabilityCache(Integer.getInteger("hrs.availabilityCache.size", 10_000));
+    private int cachedRoomCount;
+
+    // Rooms of each type sorted by price, for searches; rebuilt when rooms change
+    private Map<Room.roomType, List<Room>> roomsByPrice;
+
+    // Booked rooms per type and night; rebuilt when rooms change
+    private final RoomInventory inventory = new RoomInventory();
+    private boolean inventoryStale = true;
+    private int inventoryRoomCount;
+
+    // Finished stays, kept resident in compact columnar form
+    private BookingStore bookingHistory;
+
+    // Database time at which the current data was read; null if never loaded from the database
+    private Timestamp loadedAt;
+
+    // Whether booking operations write their changes straight to the database
+    private boolean writeThrough = true;
+
     /**
-     * Constructs a new Hotel instance and initializes rooms.
+     * Constructs a new Hotel instance for the default property and initializes rooms.
      */
     public Hotel() {
+        this(Room.DEFAULT_PROPERTY_ID);
+    }
+
+    /**
+     * Constructs a new Hotel instance for a property and initializes rooms.
+     *
+     * @param propertyId ID of the property this hotel manages.
+     */
+    public Hotel(int propertyId) {
+        this(propertyId, true);
+    }
+
+    /**
+     * Constructs a new Hotel instance for a property.
+     *
+     * @param propertyId      ID of the property this hotel manages.
+     * @param initializeRooms true to create the default set of rooms; false to start empty,
+     *                        e.g. when the rooms are about to be loaded anyway.
+     */
+    public Hotel(int propertyId, boolean initializeRooms) {
+        this.propertyId = propertyId;
         this.allRoom = new ArrayList<>();
-        initializeRoom();
+        if (initializeRooms) {
+            initializeRoom();
+        }
         this.allBookings = new ArrayList<>();
+        this.bookingHistory = new BookingStore();
+        events.addListener(availabilityCache);
+        events.addListener(inventory);
+        events.addListener(GuestDirectory.getDefault());
+        events.addListener(event -> {
+            if (event.getType() == HotelEvent.Type.ROOM_UPDATED) {
+                roomsByPrice = null;
+                inventoryStale = true;
+            } else if (event.getType() == HotelEvent.Type.REASSIGNED) {
+                // The inventory cannot tell whether the old room was in service
+                inventoryStale = true;
+            }
+        });
     }
 
     /**
      * Initializes rooms of different types (Standard, Deluxe, Suite) with room numbers and availability.
      */
-    public void initializeRoom() {
+    public synchronized void initializeRoom() {
         for (int i = 100; i <= 124; i++) {
-            allRoom.add(new Room(i, Room.roomType.STANDARD, 50, true));
+            allRoom.add(new Room(propertyId, i, Room.roomType.STANDARD, 50, true));
         }
         for (int i = 200; i <= 214; i++) {
-            allRoom.add(new Room(i, Room.roomType.DELUXE, 75, true));
+            allRoom.add(new Room(propertyId, i, Room.roomType.DELUXE, 75, true));
         }
         for (int i = 300; i <= 309; i++) {
-            allRoom.add(new Room(i, Room.roomType.SUITE, 100, true));
+            allRoom.add(new Room(propertyId, i, Room.roomType.SUITE, 100, true));
         }
     }
 
@@ -44,28 +118,157 @@ public class Hotel {
      * @param checkOut Check-out date.
      * @return List of available rooms.
      */
-    public List<Room> getAvailableRoom(LocalDate checkIn, LocalDate checkOut) {
+    public synchronized List<Room> getAvailableRoom(LocalDate checkIn, LocalDate checkOut) {
+        return getAvailableRoom(checkIn, checkOut, null);
+    }
+
+    /**
+     * Retrieves the available rooms of one type between check-in and check-out dates.
+     * Repeated searches are answered from the availability cache.
+     *
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @param type     Room type, or null for any type.
+     * @return List of available rooms.
+     */
+    public synchronized List<Room> getAvailableRoom(LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+        if (allRoom.size() != cachedRoomCount) {
+            // Rooms were added or removed behind the hotel's back
+            availabilityCache.clear();
+            cachedRoomCount = allRoom.size();
+        }
+        if (type != null && countFreeRooms(type, checkIn, checkOut) == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Room> unbooked = availabilityCache.get(checkIn, checkOut, type);
+        if (unbooked == null) {
+            unbooked = new ArrayList<>();
+            for (Room room : allRoom) {
+                if ((type == null || room.getType() == type) && !isRoomBooked(checkIn, checkOut, room)) {
+                    unbooked.add(room);
+                }
+            }
+            availabilityCache.put(checkIn, checkOut, type, unbooked);
+        }
+
+        // Whether a room is in service is checked live, so changing it never leaves stale results
         List<Room> availableRoom = new ArrayList<>();
-        for (Room room : allRoom) {
-            if (room.isAvailable() && !isRoomBooked(checkIn, checkOut, room)) {
+        for (Room room : unbooked) {
+            if (room.isAvailable()) {
                 availableRoom.add(room);
             }
         }
         return availableRoom;
     }
 
+    /**
+     * Counts the rooms of a type that are in service and free on every night of a stay,
+     * taken night by night: the count on the stay's busiest night. Zero means the type is
+     * sold out for the stay.
+     *
+     * @param type     Room type.
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @return Fewest rooms of that type free on any night of the stay.
+     */
+    public synchronized int countFreeRooms(Room.roomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (inventoryStale || allRoom.size() != inventoryRoomCount) {
+            inventory.rebuild(allRoom, allBookings);
+            inventoryRoomCount = allRoom.size();
+            inventoryStale = false;
+        }
+        return inventory.countFree(type, checkIn, checkOut);
+    }
+
+    /**
+     * Takes a room out of service (e.g. for maintenance) or puts it back. A room out of
+     * service is never offered, but its existing bookings are kept.
+     *
+     * @param room      The room.
+     * @param inService true if the room can be sold.
+     */
+    public synchronized void setRoomInService(Room room, boolean inService) {
+        AuditLog.log(AuditLog.Operation.ROOM_SERVICE, true, propertyId, null, room.getRoomNumber(), null, null,
+                inService ? "in service" : "out of service");
+        room.setAvailable(inService);
+        if (writeThrough) {
+            RoomDAO.updateRoom(room);
+        }
+        events.publish(HotelEvent.roomUpdated(room));
+    }
+
+    /**
+     * Gets the rooms that are in service.
+     */
+    private List<Room> inServiceRooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : allRoom) {
+            if (room.isAvailable()) {
+                rooms.add(room);
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Starts a filtered, ordered and paginated room search.
+     *
+     * @return A new search over this hotel's rooms.
+     */
+    public RoomSearch search() {
+        return new RoomSearch(this);
+    }
+
+    /**
+     * Gets the rooms of a type ordered by price, then room number.
+     *
+     * @param type The room type.
+     * @return Price-sorted rooms of the type.
+     */
+    synchronized List<Room> roomsByPrice(Room.roomType type) {
+        if (roomsByPrice == null || roomsByPrice.values().stream().mapToInt(List::size).sum() != allRoom.size()) {
+            Map<Room.roomType, List<Room>> index = new EnumMap<>(Room.roomType.class);
+            for (Room.roomType t : Room.roomType.values()) {
+                index.put(t, new ArrayList<>());
+            }
+            for (Room room : allRoom) {
+                index.get(room.getType()).add(room);
+            }
+            Comparator<Room> byPrice = Comparator.comparingDouble(Room::getPricePerNight)
+                    .thenComparingInt(Room::getRoomNumber);
+            for (List<Room> rooms : index.values()) {
+                rooms.sort(byPrice);
+            }
+            roomsByPrice = index;
+        }
+        return roomsByPrice.get(type);
+    }
+
+    /**
+     * Gets the cache behind availability searches, e.g. to report its hit rate.
+     *
+     * @return The availability cache.
+     */
+    public AvailabilityCache getAvailabilityCache() {
+        return availabilityCache;
+    }
+
     /**
      * Checks if a room is already booked during the given period.
+     * Only bookings whose status still holds the room (pending, confirmed, checked in) count.
+     * Stays occupy the nights from check-in up to (not including) check-out, so a new stay
+     * may start on the day another one checks out.
      *
      * @param checkIn  Desired check-in date.
      * @param checkOut Desired check-out date.
      * @param room     The room to check.
      * @return true if the room is booked; false otherwise.
      */
-    public boolean isRoomBooked(LocalDate checkIn, LocalDate checkOut, Room room) {
+    public synchronized boolean isRoomBooked(LocalDate checkIn, LocalDate checkOut, Room room) {
         for (Booking booking : allBookings) {
-            if (booking.getBookedRoom().equals(room) &&
-                    !((checkOut.isBefore(booking.getCheckIn())) || (checkIn.isAfter(booking.getCheckOut())))) {
+            if (booking.getStatus().blocksRoom() && booking.getBookedRoom().equals(room) &&
+                    checkIn.isBefore(booking.getCheckOut()) && checkOut.isAfter(booking.getCheckIn())) {
                 return true;
             }
         }
@@ -94,12 +297,21 @@ public class Hotel {
      * @param checkOut   Check-out date.
      * @return true if booking is successful, false otherwise.
      */
-    public boolean bookRoom(Room room, String guestName, String bookingId,
+    public synchronized boolean bookRoom(Room room, String guestName, String bookingId,
                             LocalDate checkIn, LocalDate checkOut) {
+        boolean booked = book(room, guestName, bookingId, checkIn, checkOut);
+        AuditLog.log(AuditLog.Operation.BOOK, booked, propertyId, bookingId, room.getRoomNumber(), checkIn, checkOut, guestName);
+        return booked;
+    }
 
+    /**
+     * Books a room if it exists and is free; see {@link #bookRoom}.
+     */
+    private boolean book(Room room, String guestName, String bookingId, LocalDate checkIn, LocalDate checkOut) {
         Room targetRoom = null;
         for (Room r : allRoom) {
-            if (r.getRoomNumber() == room.getRoomNumber() && r.getType().equals(room.getType())) {
+            if (r.getPropertyId() == room.getPropertyId() && r.getRoomNumber() == room.getRoomNumber()
+                    && r.getType().equals(room.getType())) {
                 targetRoom = r;
                 break;
             }
@@ -110,46 +322,284 @@ public class Hotel {
             return false;
         }
 
+        if (findById(bookingId) != null) {
+            System.out.println("Error: Booking ID " + bookingId + " is already in use");
+            return false;
+        }
+
         if (!targetRoom.isAvailable() || isRoomBooked(checkIn, checkOut, targetRoom)) {
             System.out.println("Room " + targetRoom.getRoomNumber() + " (" + targetRoom.getType() + ") is not available");
             return false;
         }
 
-        targetRoom.setAvailable(false);
-        allBookings.add(new Booking(guestName, targetRoom, bookingId, checkIn, checkOut));
+        Booking booking = new Booking(guestName, targetRoom, bookingId, checkIn, checkOut);
+        allBookings.add(booking);
+        publishBookingChange(HotelEvent.Type.BOOKED, booking);
         return true;
     }
 
     /**
      * Cancels a booking and updates room availability.
+     * The freed nights are offered to the waitlist straight away.
      *
      * @param bookingId ID of the booking to cancel.
-     * @return true if cancellation successful; false if booking not found.
+     * @return true if cancellation successful; false if booking not found or no longer cancellable.
      */
     public boolean cancelBook(String bookingId) {
+        return cancelAndFillFromWaitlist(bookingId) != null;
+    }
+
+    /**
+     * Cancels a booking, updates room availability and books the freed room for
+     * matching waitlisted requests.
+     *
+     * @param bookingId ID of the booking to cancel.
+     * @return Bookings created for waitlisted requests (possibly empty), or null if
+     *         the booking was not found or is no longer cancellable.
+     */
+    public synchronized List<Booking> cancelAndFillFromWaitlist(String bookingId) {
+        Booking booking = findById(bookingId);
+        List<Booking> filled = cancel(bookingId);
+        AuditLog.log(AuditLog.Operation.CANCEL, filled != null, propertyId, bookingId,
+                booking == null ? 0 : booking.getBookedRoom().getRoomNumber(),
+                booking == null ? null : booking.getCheckIn(), booking == null ? null : booking.getCheckOut(),
+                filled == null || filled.isEmpty() ? null : filled.size() + " filled from waitlist");
+        return filled;
+    }
+
+    /**
+     * Cancels a booking and fills its nights from the waitlist; see {@link #cancelAndFillFromWaitlist}.
+     */
+    private List<Booking> cancel(String bookingId) {
         Optional<Booking> bookingToCancel = allBookings.stream()
                 .filter(b -> b.getBookingId().equals(bookingId))
                 .findFirst();
 
         if (bookingToCancel.isPresent()) {
             Booking booking = bookingToCancel.get();
-            booking.setStatus("Cancelled");
+            if (!booking.getStatus().canTransitionTo(BookingStatus.CANCELLED)) {
+                System.out.println("Error: Booking " + bookingId + " is " + booking.getStatus() + " and cannot be cancelled");
+                return null;
+            }
+            long paidCents = ledger.getBalanceCents(bookingId);
+            if (paidCents > 0) {
+                long refundCents = Math.min(paidCents, Math.round(calculateRefundAmount(booking) * 100));
+                ledger.record(bookingId + ":refund", bookingId, propertyId, LedgerEntry.Kind.REFUND,
+                        refundCents, booking.getPaymentMethod());
+            }
+            booking.transitionTo(BookingStatus.CANCELLED);
             Room room = booking.getBookedRoom();
-            room.setAvailable(true);
-            RoomDAO.updateRoom(room);
-            return true;
+            publishBookingChange(HotelEvent.Type.CANCELLED, booking);
+            return fillFromWaitlist(room, booking.getCheckIn(), booking.getCheckOut());
         }
-        return false;
+        return null;
     }
 
     /**
-     * Processes the payment for a booking.
+     * Adds a request that could not be served to the waitlist.
+     *
+     * @param guestName Name of the guest.
+     * @param checkIn   Requested check-in date.
+     * @param checkOut  Requested check-out date.
+     * @param type      Requested room type.
+     * @param priority  Priority; higher values are served first.
+     * @return The queued request.
+     */
+    public synchronized Waitlist.Request addToWaitlist(String guestName, LocalDate checkIn, LocalDate checkOut,
+                                          Room.roomType type, int priority) {
+        AuditLog.log(AuditLog.Operation.WAITLIST, true, propertyId, null, 0, checkIn, checkOut, type + " " + guestName);
+        return waitlist.add(guestName, checkIn, checkOut, type, priority);
+    }
+
+    /**
+     * Gets the waitlist of requests waiting for a room.
+     *
+     * @return The waitlist.
+     */
+    public Waitlist getWaitlist() {
+        return waitlist;
+    }
+
+    /**
+     * Books waitlisted requests into a room's freed nights. After each match the
+     * nights left over before and after it are offered again, so one long cancellation
+     * can serve several shorter requests.
+     */
+    private List<Booking> fillFromWaitlist(Room room, LocalDate freeFrom, LocalDate freeTo) {
+        List<Booking> created = new ArrayList<>();
+        Deque<LocalDate[]> gaps = new ArrayDeque<>();
+        gaps.push(new LocalDate[]{freeFrom, freeTo});
+
+        while (!gaps.isEmpty() && waitlist.size() > 0 && room.isAvailable()) {
+            LocalDate[] gap = gaps.pop();
+            Waitlist.Request match = waitlist.findMatch(room.getType(), gap[0], gap[1],
+                    request -> !isRoomBooked(request.getCheckIn(), request.getCheckOut(), room));
+            if (match == null) {
+                continue;
+            }
+
+            String bookingId = generateConfirmationNumber();
+            if (bookRoom(room, match.getGuestName(), bookingId, match.getCheckIn(), match.getCheckOut())) {
+                waitlist.remove(match);
+                created.add(findById(bookingId));
+                gaps.push(new LocalDate[]{gap[0], match.getCheckIn()});
+                gaps.push(new LocalDate[]{match.getCheckOut(), gap[1]});
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Books a batch of requests, choosing rooms so that as few unsellable gaps as possible
+     * are left between stays. Requests that cannot be placed are added to the waitlist.
+     *
+     * @param requests Stays to book; requests without a booking ID get a new confirmation number.
+     * @return Bookings created for the batch.
+     */
+    public synchronized List<Booking> assignRooms(List<RoomAssignmentOptimizer.Request> requests) {
+        AuditLog.log(AuditLog.Operation.ASSIGN, true, propertyId, null, 0, null, null, requests.size() + " requests");
+        RoomAssignmentOptimizer.Result plan = assignmentOptimizer().assign(inServiceRooms(), roomHoldingBookings(), requests);
+
+        List<Booking> created = new ArrayList<>();
+        for (Map.Entry<RoomAssignmentOptimizer.Request, Room> entry : plan.getAssignments().entrySet()) {
+            RoomAssignmentOptimizer.Request request = entry.getKey();
+            String bookingId = request.getBookingId() != null ? request.getBookingId() : generateConfirmationNumber();
+            if (bookRoom(entry.getValue(), request.getGuestName(), bookingId, request.getCheckIn(), request.getCheckOut())) {
+                created.add(findById(bookingId));
+            } else {
+                waitlist.add(request.getGuestName(), request.getCheckIn(), request.getCheckOut(), request.getType(), 0);
+            }
+        }
+        for (RoomAssignmentOptimizer.Request request : plan.getUnassigned()) {
+            waitlist.add(request.getGuestName(), request.getCheckIn(), request.getCheckOut(), request.getType(), 0);
+        }
+        return created;
+    }
+
+    /**
+     * Re-plans the rooms of bookings that have not started yet to close unsellable gaps.
+     * Stays already in progress keep their rooms. The new plan is only applied if every
+     * booking still gets a room and fewer nights are left orphaned than before.
+     *
+     * @param from Bookings checking in on or after this date may be moved.
+     * @return Number of bookings moved to another room.
+     */
+    public synchronized int reoptimizeAssignments(LocalDate from) {
+        int moved = reoptimize(from);
+        AuditLog.log(AuditLog.Operation.REOPTIMIZE, true, propertyId, null, 0, from, null, moved + " moved");
+        return moved;
+    }
+
+    /**
+     * Re-plans and applies the new rooms if the plan is better; see {@link #reoptimizeAssignments}.
+     */
+    private int reoptimize(LocalDate from) {
+        List<Booking> fixed = new ArrayList<>();
+        List<RoomAssignmentOptimizer.Request> requests = new ArrayList<>();
+        Map<RoomAssignmentOptimizer.Request, Booking> movable = new HashMap<>();
+        for (Booking booking : roomHoldingBookings()) {
+            if (booking.getStatus() == BookingStatus.CHECKED_IN || booking.getCheckIn().isBefore(from)) {
+                fixed.add(booking);
+            } else {
+                RoomAssignmentOptimizer.Request request = new RoomAssignmentOptimizer.Request(booking.getBookingId(),
+                        booking.getGustName(), booking.getCheckIn(), booking.getCheckOut(), booking.getBookedRoom().getType());
+                requests.add(request);
+                movable.put(request, booking);
+            }
+        }
+
+        RoomAssignmentOptimizer optimizer = assignmentOptimizer();
+        List<Room> rooms = inServiceRooms();
+        RoomAssignmentOptimizer.Result plan = optimizer.assign(rooms, fixed, requests);
+        if (!plan.getUnassigned().isEmpty()) {
+            return 0;
+        }
+
+        // Score the plan as if it were applied, then decide
+        List<Booking> planned = new ArrayList<>(fixed);
+        for (Map.Entry<RoomAssignmentOptimizer.Request, Room> entry : plan.getAssignments().entrySet()) {
+            Booking booking = movable.get(entry.getKey());
+            planned.add(new Booking(booking.getGustName(), entry.getValue(), booking.getBookingId(),
+                    booking.getCheckIn(), booking.getCheckOut()));
+        }
+        if (optimizer.countOrphanNights(rooms, planned) >= optimizer.countOrphanNights(rooms, roomHoldingBookings())) {
+            return 0;
+        }
+
+        int moved = 0;
+        for (Map.Entry<RoomAssignmentOptimizer.Request, Room> entry : plan.getAssignments().entrySet()) {
+            Booking booking = movable.get(entry.getKey());
+            if (booking.getBookedRoom() != entry.getValue()) {
+                booking.setBookedRoom(entry.getValue());
+                publishBookingChange(HotelEvent.Type.REASSIGNED, booking);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Gets the active bookings that currently hold their room.
+     */
+    private List<Booking> roomHoldingBookings() {
+        List<Booking> holding = new ArrayList<>();
+        for (Booking booking : allBookings) {
+            if (booking.getStatus().blocksRoom()) {
+                holding.add(booking);
+            }
+        }
+        return holding;
+    }
+
+    /**
+     * Creates the room assignment optimizer. The shortest sellable gap can be set with
+     * the {@code hrs.minSellableNights} system property and defaults to 2 nights.
+     */
+    private static RoomAssignmentOptimizer assignmentOptimizer() {
+        return new RoomAssignmentOptimizer(Integer.getInteger("hrs.minSellableNights", 2));
+    }
+
+    /**
+     * Processes the payment for a booking, using the booking's own charge key as
+     * idempotency key, so paying the same booking twice never charges twice.
      *
      * @param bookingId     ID of the booking.
      * @param paymentMethod Payment method used ("Cash" or "Card").
      * @return true if payment is successful; false otherwise.
      */
     public boolean processPayment(String bookingId, String paymentMethod) {
+        return processPayment(bookingId, paymentMethod, bookingId + ":charge");
+    }
+
+    /**
+     * Processes the payment for a booking and records the charge in the ledger.
+     * A call repeating an idempotency key that was already processed for the same
+     * booking succeeds without charging again.
+     *
+     * @param bookingId      ID of the booking.
+     * @param paymentMethod  Payment method used ("Cash" or "Card").
+     * @param idempotencyKey Key identifying this payment attempt; retries pass the same key.
+     * @return true if payment is successful or was already processed; false otherwise.
+     */
+    public synchronized boolean processPayment(String bookingId, String paymentMethod, String idempotencyKey) {
+        boolean paid = pay(bookingId, paymentMethod, idempotencyKey);
+        AuditLog.log(AuditLog.Operation.PAY, paid, propertyId, bookingId, 0, null, null, paymentMethod + " " + idempotencyKey);
+        return paid;
+    }
+
+    /**
+     * Charges a booking unless the key was already processed; see {@link #processPayment(String, String, String)}.
+     */
+    private boolean pay(String bookingId, String paymentMethod, String idempotencyKey) {
+        LedgerEntry previous = ledger.findByKey(idempotencyKey);
+        if (previous != null) {
+            if (!previous.getBookingId().equals(bookingId)) {
+                System.out.println("Error: Payment key " + idempotencyKey + " was already used for another booking");
+                return false;
+            }
+            return true;
+        }
+
         if (!paymentMethod.equalsIgnoreCase("Cash") && !paymentMethod.equalsIgnoreCase("Card")) {
             System.out.println("Error: Invalid payment method. Use 'cash' or 'card'");
             return false;
@@ -168,44 +618,340 @@ public class Hotel {
             return false;
         }
 
-        if (!targetBooking.getStatus().equalsIgnoreCase("notConfirmed")) {
+        if (targetBooking.getStatus() != BookingStatus.PENDING) {
             System.out.println("Error: Booking already confirmed or cancelled!");
             return false;
         }
 
-        targetBooking.setStatus("Confirmed");
+        long amountCents = Math.round(calculateTotalPrice(targetBooking.getBookedRoom(),
+                targetBooking.getCheckIn(), targetBooking.getCheckOut()) * 100);
+        ledger.record(idempotencyKey, bookingId, propertyId, LedgerEntry.Kind.CHARGE, amountCents, paymentMethod);
+
+        targetBooking.transitionTo(BookingStatus.CONFIRMED);
         targetBooking.setPaymentMethod(paymentMethod);
         targetBooking.setPaymentDate(LocalDate.now());
+        publishBookingChange(HotelEvent.Type.PAID, targetBooking);
+        return true;
+    }
+
+    /**
+     * Checks in the guest of a confirmed booking.
+     *
+     * @param bookingId ID of the booking.
+     * @return true if the guest was checked in; false if not found or not confirmed.
+     */
+    public synchronized boolean checkIn(String bookingId) {
+        return changeStatus(bookingId, BookingStatus.CHECKED_IN);
+    }
+
+    /**
+     * Checks out the guest of a checked-in booking.
+     *
+     * @param bookingId ID of the booking.
+     * @return true if the guest was checked out; false if not found or not checked in.
+     */
+    public synchronized boolean checkOut(String bookingId) {
+        if (!changeStatus(bookingId, BookingStatus.CHECKED_OUT)) {
+            return false;
+        }
+        events.publish(HotelEvent.of(HotelEvent.Type.RELEASED, findById(bookingId)));
+        return true;
+    }
+
+    /**
+     * Marks a confirmed booking whose guest never arrived as a no-show. The room is
+     * released and its remaining nights are offered to the waitlist.
+     *
+     * @param bookingId ID of the booking.
+     * @return true if the booking was marked; false if not found or not confirmed.
+     */
+    public synchronized boolean markNoShow(String bookingId) {
+        if (!changeStatus(bookingId, BookingStatus.NO_SHOW)) {
+            return false;
+        }
+        Booking booking = findById(bookingId);
+        Room room = booking.getBookedRoom();
+        events.publish(HotelEvent.of(HotelEvent.Type.RELEASED, booking));
+
+        LocalDate today = LocalDate.now();
+        LocalDate freeFrom = booking.getCheckIn().isAfter(today) ? booking.getCheckIn() : today;
+        if (freeFrom.isBefore(booking.getCheckOut())) {
+            fillFromWaitlist(room, freeFrom, booking.getCheckOut());
+        }
         return true;
     }
 
+    /**
+     * Moves an active booking to a new status if the transition is allowed.
+     */
+    private boolean changeStatus(String bookingId, BookingStatus next) {
+        AuditLog.Operation operation = next == BookingStatus.CHECKED_IN ? AuditLog.Operation.CHECK_IN
+                : next == BookingStatus.CHECKED_OUT ? AuditLog.Operation.CHECK_OUT : AuditLog.Operation.NO_SHOW;
+        for (Booking booking : allBookings) {
+            if (booking.getBookingId().equals(bookingId)) {
+                boolean allowed = booking.getStatus().canTransitionTo(next);
+                AuditLog.log(operation, allowed, propertyId, bookingId, booking.getBookedRoom().getRoomNumber(),
+                        booking.getCheckIn(), booking.getCheckOut(), allowed ? null : "was " + booking.getStatus());
+                if (!allowed) {
+                    System.out.println("Error: Booking " + bookingId + " is " + booking.getStatus() + ", cannot move to " + next);
+                    return false;
+                }
+                booking.transitionTo(next);
+                publishBookingChange(HotelEvent.Type.STATUS_CHANGED, booking);
+                return true;
+            }
+        }
+        AuditLog.log(operation, false, propertyId, bookingId, 0, null, null, "not found");
+        System.out.println("Error: Booking " + bookingId + " not found!");
+        return false;
+    }
+
     /**
      * Saves all rooms and bookings to the database using DAO classes.
      */
-    public void saveToDatabase() {
+    public synchronized void saveToDatabase() {
         for (Room room : allRoom) {
             RoomDAO.saveRoom(room);
         }
         for (Booking booking : allBookings) {
             BookingDAO.saveBooking(booking);
         }
+        if (!ledger.flush(10_000)) {
+            System.err.println("Error: payment ledger entries are still waiting to be written");
+        }
+    }
+
+    /**
+     * Loads this property's rooms and bookings from the database.
+     * Stays that ended before today are moved into the booking history store.
+     */
+    public synchronized void loadFromDatabase() {
+        this.loadedAt = DBUtil.currentTimestamp();
+        this.allRoom = RoomDAO.loadRoomsByProperty(propertyId);
+        this.allBookings = BookingDAO.loadBookingsByProperty(propertyId, this.allRoom);
+        this.bookingHistory = new BookingStore();
+        availabilityCache.clear();
+        roomsByPrice = null;
+        inventoryStale = true;
+        ledger.load(PaymentLedgerDAO.loadByProperty(propertyId));
+        archiveHistory(LocalDate.now());
+        recordGuestStays();
+    }
+
+    /**
+     * Loads this property's data from a local snapshot plus the rows that changed in the
+     * database since the snapshot was taken. Bookings that have since been deleted or
+     * archived are dropped. Falls back to a full {@link #loadFromDatabase()} if there is no
+     * usable snapshot, or if the snapshot's rooms and bookings cannot be reconciled with
+     * the database's: a room was deleted, or a row is missing from both the snapshot and
+     * the changes.
+     *
+     * @param snapshotFile The snapshot file to start from.
+     */
+    public synchronized void loadWarm(Path snapshotFile) {
+        Timestamp now = DBUtil.currentTimestamp();
+        HotelSnapshot snapshot = now == null ? null : HotelSnapshot.read(snapshotFile, propertyId);
+        if (snapshot == null || snapshot.getLoadedAt() == null) {
+            loadFromDatabase();
+            return;
+        }
+
+        this.allRoom = new ArrayList<>(snapshot.getRooms());
+        this.allBookings = new ArrayList<>(snapshot.getBookings());
+        this.bookingHistory = new BookingStore();
+        availabilityCache.clear();
+        roomsByPrice = null;
+        inventoryStale = true;
+        ledger.load(PaymentLedgerDAO.loadByProperty(propertyId));
+
+        for (Room changed : RoomDAO.loadRoomsChangedSince(propertyId, snapshot.getLoadedAt())) {
+            mergeRoom(changed);
+        }
+        for (Booking changed : BookingDAO.loadBookingsChangedSince(propertyId, snapshot.getLoadedAt(), allRoom)) {
+            allBookings.removeIf(b -> b.getBookingId().equals(changed.getBookingId()));
+            allBookings.add(changed);
+        }
+        if (!reconcileWithDatabase()) {
+            loadFromDatabase();
+            return;
+        }
+
+        this.loadedAt = now;
+        archiveHistory(LocalDate.now());
+        recordGuestStays();
+    }
+
+    /**
+     * Drops warm-loaded bookings that no longer exist in the database and checks that the
+     * rooms and the remaining bookings are exactly the database's.
+     *
+     * @return true if reconciled, false if a cold load is needed.
+     */
+    private boolean reconcileWithDatabase() {
+        Set<Integer> roomNumbers = RoomDAO.loadRoomNumbersByProperty(propertyId);
+        Set<String> bookingIds = BookingDAO.loadBookingIdsByProperty(propertyId);
+        if (roomNumbers == null || bookingIds == null || roomNumbers.size() != allRoom.size()) {
+            return false;
+        }
+        for (Room room : allRoom) {
+            if (!roomNumbers.contains(room.getRoomNumber())) {
+                return false; // Deleted; its bookings may still refer to it
+            }
+        }
+        allBookings.removeIf(b -> !bookingIds.contains(b.getBookingId()));
+        return allBookings.size() == bookingIds.size();
+    }
+
+    /**
+     * Replaces this hotel's rooms and bookings with those of a snapshot, without touching
+     * the database. Used by replicas catching up from a {@link ChangeFeed} snapshot.
+     * Stays that ended before today are moved into the booking history store.
+     *
+     * @param snapshot The snapshot to load.
+     */
+    public synchronized void restore(HotelSnapshot snapshot) {
+        this.allRoom = new ArrayList<>(snapshot.getRooms());
+        this.allBookings = new ArrayList<>(snapshot.getBookings());
+        this.bookingHistory = new BookingStore();
+        this.loadedAt = snapshot.getLoadedAt();
+        availabilityCache.clear();
+        roomsByPrice = null;
+        inventoryStale = true;
+        archiveHistory(LocalDate.now());
+        recordGuestStays();
+    }
+
+    /**
+     * Applies a room change replicated from another instance's {@link ChangeFeed}.
+     *
+     * @param changed The room's new state.
+     */
+    public synchronized void applyRoomChange(Room changed) {
+        mergeRoom(changed);
+    }
+
+    /**
+     * Applies a booking change replicated from another instance's {@link ChangeFeed}: the
+     * booking is created or overwritten with the given state, without validation or
+     * database writes, and the change is published as an event of the same type.
+     *
+     * @param type    Type of the change on the originating instance.
+     * @param changed The booking's new state; its room is matched by number.
+     * @return true if applied, false if the room is unknown here.
+     */
+    public synchronized boolean applyBookingChange(HotelEvent.Type type, Booking changed) {
+        Room room = null;
+        for (Room candidate : allRoom) {
+            if (candidate.getRoomNumber() == changed.getBookedRoom().getRoomNumber()) {
+                room = candidate;
+                break;
+            }
+        }
+        if (room == null) {
+            return false;
+        }
+
+        Booking booking = null;
+        for (Booking existing : allBookings) {
+            if (existing.getBookingId().equals(changed.getBookingId())) {
+                booking = existing;
+                break;
+            }
+        }
+        if (booking == null) {
+            booking = new Booking(changed.getGustName(), room, changed.getBookingId(),
+                    changed.getCheckIn(), changed.getCheckOut());
+            allBookings.add(booking);
+        } else {
+            booking.setGustName(changed.getGustName());
+            booking.setBookedRoom(room);
+            booking.setCheckIn(changed.getCheckIn());
+            booking.setCheckOut(changed.getCheckOut());
+        }
+        booking.setStatus(changed.getStatus());
+        booking.setPaymentMethod(changed.getPaymentMethod());
+        booking.setPaymentDate(changed.getPaymentDate());
+        events.publish(HotelEvent.of(type, booking));
+        return true;
+    }
+
+    /**
+     * Updates a resident room in place from a freshly loaded copy, or adds it if new.
+     * Updating in place keeps the Room references held by bookings valid.
+     */
+    private void mergeRoom(Room changed) {
+        for (Room room : allRoom) {
+            if (room.getRoomNumber() == changed.getRoomNumber()) {
+                room.setType(changed.getType());
+                room.setPricePerNight(changed.getPricePerNight());
+                room.setAvailable(changed.isAvailable());
+                events.publish(HotelEvent.roomUpdated(room));
+                return;
+            }
+        }
+        allRoom.add(changed);
+        events.publish(HotelEvent.roomUpdated(changed));
+    }
+
+    /**
+     * Tells the guest directory which guests of the loaded bookings have checked in.
+     */
+    private void recordGuestStays() {
+        GuestDirectory guests = GuestDirectory.getDefault();
+        guests.recordStays(allBookings);
+        for (int row = 0; row < bookingHistory.size(); row++) {
+            guests.recordStay(bookingHistory.get(row));
+        }
     }
 
     /**
-     * Loads all rooms and bookings from the database.
+     * Gets the database time at which this hotel's data was read.
+     *
+     * @return Load time, or null if the data did not come from the database.
      */
-    public void loadFromDatabase() {
-        this.allRoom = RoomDAO.loadAllRooms();
-        this.allBookings = BookingDAO.loadAllBookings(this.allRoom);
+    public Timestamp getLoadedAt() {
+        return loadedAt;
     }
 
     /**
-     * Generates a unique 5-character confirmation number.
+     * Moves finished bookings (settled status, with check-out before the cutoff)
+     * out of the active booking list and into the columnar history store.
+     * Such bookings can no longer affect availability for dates from the cutoff on.
+     *
+     * @param cutoff Bookings checking out before this date are archived.
+     * @return Number of bookings moved into the history store.
+     */
+    public synchronized int archiveHistory(LocalDate cutoff) {
+        int moved = 0;
+        Iterator<Booking> it = allBookings.iterator();
+        while (it.hasNext()) {
+            Booking booking = it.next();
+            if (booking.getCheckOut().isBefore(cutoff) && booking.getStatus().isSettled()) {
+                bookingHistory.add(booking);
+                it.remove();
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Gets the store holding historical (finished) bookings.
+     *
+     * @return The booking history store.
+     */
+    public BookingStore getBookingHistory() {
+        return bookingHistory;
+    }
+
+    /**
+     * Generates a unique confirmation number: a time-ordered ID in 13-character base32 form,
+     * unique across HRS instances as long as each runs with its own {@code hrs.nodeId}.
      *
      * @return Unique confirmation number.
      */
     public String generateConfirmationNumber() {
-        return UUID.randomUUID().toString().substring(0, 5).toUpperCase();
+        return BookingIdGenerator.getDefault().nextBookingId();
     }
 
     /**
@@ -213,8 +959,77 @@ public class Hotel {
      *
      * @param newBooking The new booking to add.
      */
-    public void addBooking(Booking newBooking) {
+    public synchronized void addBooking(Booking newBooking) {
         allBookings.add(newBooking);
+        publishBookingChange(HotelEvent.Type.BOOKED, newBooking);
+    }
+
+    /**
+     * Writes a changed booking to the database if write-through is on, then publishes
+     * the change.
+     */
+    private void publishBookingChange(HotelEvent.Type type, Booking booking) {
+        if (writeThrough) {
+            BookingDAO.saveBooking(booking);
+        }
+        events.publish(HotelEvent.of(type, booking));
+    }
+
+    /**
+     * Turns direct database writes from booking operations on or off. With writes on,
+     * every booking that is created, paid, cancelled, moved or changes status is saved
+     * with {@link BookingDAO#saveBooking} before its event is published, as are room
+     * service changes and ledger entries. With writes off, bookings only reach the
+     * database on {@link #saveToDatabase()} and ledger entries stay in memory, which is
+     * what simulations and stress tests want.
+     *
+     * @param writeThrough true to write changes to the database as they happen.
+     */
+    public synchronized void setWriteThrough(boolean writeThrough) {
+        this.writeThrough = writeThrough;
+        ledger.setPersistent(writeThrough);
+    }
+
+    /**
+     * Gets the bus on which this hotel publishes its changes.
+     *
+     * @return The event bus.
+     */
+    public HotelEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the stream of availability changes per room type and night. The stream is
+     * started on first use and only carries changes made from then on.
+     *
+     * @return The availability publisher.
+     */
+    public synchronized AvailabilityPublisher getAvailabilityPublisher() {
+        if (availabilityPublisher == null) {
+            availabilityPublisher = new AvailabilityPublisher(propertyId,
+                    Integer.getInteger("hrs.availability.bufferSize", AvailabilityPublisher.DEFAULT_CAPACITY));
+            events.addListener(availabilityPublisher);
+        }
+        return availabilityPublisher;
+    }
+
+    /**
+     * Gets the ledger of charges and refunds.
+     *
+     * @return The payment ledger.
+     */
+    public PaymentLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Gets the ID of the property this hotel manages.
+     *
+     * @return Property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
     }
 
     /**
@@ -250,17 +1065,17 @@ public class Hotel {
     }
 
     /**
-     * Finds a booking by its ID.
+     * Finds a booking by its ID, looking at active bookings first and then at the history.
      *
      * @param id The booking ID.
      * @return The Booking object if found; null otherwise.
      */
-    public Booking findById(String id) {
+    public synchronized Booking findById(String id) {
         for (Booking booking : allBookings) {
             if (booking.getBookingId().equals(id)) {
                 return booking;
             }
         }
-        return null;
+        return bookingHistory.findById(id);
     }
 }
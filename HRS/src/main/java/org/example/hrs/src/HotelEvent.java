@@ -0,0 +1,155 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+
+/**
+ * A change made to a {@link Hotel}, published to its {@link HotelEventBus}.
+ * Booking events carry the booking's room and dates; room events only the room.
+ */
+public class HotelEvent {
+
+    /**
+     * Kinds of change. RELEASED means a booking stopped holding its room without being
+     * cancelled, e.g. when the guest did not show up.
+     */
+    public enum Type {
+        BOOKED,
+        CANCELLED,
+        PAID,
+        STATUS_CHANGED,
+        REASSIGNED,
+        RELEASED,
+        ROOM_UPDATED
+    }
+
+    private final Type type;
+    private final int propertyId;
+    private final String bookingId;
+    private final Room room;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private final BookingStatus status;
+    private final Booking booking;
+
+    private HotelEvent(Type type, int propertyId, String bookingId, Room room, LocalDate checkIn, LocalDate checkOut,
+                       BookingStatus status, Booking booking) {
+        this.type = type;
+        this.propertyId = propertyId;
+        this.bookingId = bookingId;
+        this.room = room;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.status = status;
+        this.booking = booking;
+    }
+
+    /**
+     * Creates an event about a booking.
+     *
+     * @param type    Kind of change.
+     * @param booking The booking after the change.
+     * @return The event.
+     */
+    public static HotelEvent of(Type type, Booking booking) {
+        return new HotelEvent(type, booking.getPropertyId(), booking.getBookingId(), booking.getBookedRoom(),
+                booking.getCheckIn(), booking.getCheckOut(), booking.getStatus(), booking);
+    }
+
+    /**
+     * Creates an event about a room.
+     *
+     * @param room The room after the change.
+     * @return The event.
+     */
+    public static HotelEvent roomUpdated(Room room) {
+        return new HotelEvent(Type.ROOM_UPDATED, room.getPropertyId(), null, room, null, null, null, null);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the property the change happened in.
+     *
+     * @return The property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Gets the booking that changed.
+     *
+     * @return The booking ID, or null for room events.
+     */
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    /**
+     * Gets the room affected by the change.
+     *
+     * @return The room.
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Gets the check-in date of the booking.
+     *
+     * @return The check-in date, or null for room events.
+     */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Gets the check-out date of the booking.
+     *
+     * @return The check-out date, or null for room events.
+     */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Gets the booking's status after the change.
+     *
+     * @return The booking status, or null for room events.
+     */
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the booking that changed. It is the live object, so only read it while the
+     * change is being published.
+     *
+     * @return The booking, or null for room events.
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Tells whether the change can affect which rooms are free on which nights.
+     *
+     * @return true for bookings, cancellations, reassignments, releases and room updates.
+     */
+    public boolean affectsAvailability() {
+        return type == Type.BOOKED || type == Type.CANCELLED || type == Type.REASSIGNED
+                || type == Type.RELEASED || type == Type.ROOM_UPDATED;
+    }
+
+    @Override
+    public String toString() {
+        return type + (bookingId != null ? " " + bookingId : "") + " room " + room.getRoomNumber();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.hrs.src;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers a hotel's change events to its listeners.
+ *
+ * Listeners are held in a copy-on-write list: publishing, which happens on every
+ * change, iterates without locking, while the rare (un)subscriptions pay for the copy.
+ * A failing listener is reported and skipped so it cannot break the change itself.
+ */
+public class HotelEventBus {
+
+    private final List<HotelListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(HotelListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(HotelListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every listener.
+     *
+     * @param event The change to publish.
+     */
+    public void publish(HotelEvent event) {
+        for (HotelListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                System.err.println("Error in hotel listener for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
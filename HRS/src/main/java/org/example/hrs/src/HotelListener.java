@@ -0,0 +1,17 @@
+package org.example.hrs.src;
+
+/**
+ * Receives the changes published by a {@link Hotel}.
+ */
+@FunctionalInterface
+public interface HotelListener {
+
+    /**
+     * Called after a change has been applied. Runs on the thread that made the change
+     * while it still holds the hotel's lock, so implementations must be quick and must
+     * not call back into the hotel from another thread and wait for it.
+     *
+     * @param event The change.
+     */
+    void onEvent(HotelEvent event);
+}
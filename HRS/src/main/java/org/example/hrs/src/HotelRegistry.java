@@ -0,0 +1,280 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Holds one {@link Hotel} shard per property and routes operations to the right one.
+ *
+ * Each property's rooms and bookings are loaded the first time the property is used,
+ * from its local snapshot plus a database delta when one exists, and can be evicted
+ * again independently of the others. A shard is loaded outside the map, behind a
+ * future that other callers for the same property wait on, so a slow load never holds
+ * up other properties. Searches that span properties fan out in parallel: resident
+ * shards are searched in memory, the other properties in the database, so a search
+ * does not make every property resident.
+ *
+ * Operations routed through the registry run under the shard's lock and only on a
+ * shard that is still registered, so none are lost to a concurrent {@link #evict}.
+ * Callers holding a {@link Hotel} from {@link #getHotel} directly must not evict it.
+ */
+public class HotelRegistry {
+
+    private final Map<Integer, CompletableFuture<Hotel>> shards = new ConcurrentHashMap<>();
+    private final ExecutorService searchPool;
+
+    /**
+     * Constructs an empty registry. Shards are loaded on demand.
+     */
+    public HotelRegistry() {
+        this.searchPool = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                    Thread thread = new Thread(r, "hotel-search");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Gets the hotel shard for a property, loading it if it is not resident.
+     *
+     * @param propertyId The property ID.
+     * @return The property's Hotel.
+     */
+    public Hotel getHotel(int propertyId) {
+        CompletableFuture<Hotel> shard = shards.get(propertyId);
+        if (shard == null) {
+            CompletableFuture<Hotel> loading = new CompletableFuture<>();
+            shard = shards.putIfAbsent(propertyId, loading);
+            if (shard == null) {
+                // This caller loads; others asking for the property wait on the future
+                try {
+                    Hotel hotel = new Hotel(propertyId, false);
+                    hotel.loadWarm(HotelSnapshot.defaultPath(propertyId));
+                    loading.complete(hotel);
+                } catch (RuntimeException | Error e) {
+                    shards.remove(propertyId, loading);
+                    loading.completeExceptionally(e);
+                    throw e;
+                }
+                return loading.join();
+            }
+        }
+        return await(shard);
+    }
+
+    /**
+     * Runs an operation on a property's shard while holding the shard's lock, reloading
+     * the shard if it was evicted between looking it up and locking it.
+     */
+    private <T> T withHotel(int propertyId, Function<Hotel, T> operation) {
+        while (true) {
+            Hotel hotel = getHotel(propertyId);
+            synchronized (hotel) {
+                if (residentHotel(propertyId) == hotel) {
+                    return operation.apply(hotel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a property's shard if it is loaded, without loading it.
+     *
+     * @return The shard, or null if not resident or still loading.
+     */
+    private Hotel residentHotel(int propertyId) {
+        CompletableFuture<Hotel> shard = shards.get(propertyId);
+        return shard != null && shard.isDone() && !shard.isCompletedExceptionally() ? shard.join() : null;
+    }
+
+    private static Hotel await(CompletableFuture<Hotel> shard) {
+        try {
+            return shard.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the shards that are loaded, skipping ones still loading.
+     */
+    private List<Hotel> residentHotels() {
+        List<Hotel> hotels = new ArrayList<>();
+        for (int propertyId : shards.keySet()) {
+            Hotel hotel = residentHotel(propertyId);
+            if (hotel != null) {
+                hotels.add(hotel);
+            }
+        }
+        return hotels;
+    }
+
+    /**
+     * Registers an already built hotel shard, replacing any resident shard for its property.
+     *
+     * @param hotel The hotel to register.
+     */
+    public void register(Hotel hotel) {
+        shards.put(hotel.getPropertyId(), CompletableFuture.completedFuture(hotel));
+    }
+
+    /**
+     * Saves a property's shard, snapshots it to local disk and drops it from memory.
+     * The shard stays registered and locked until it is saved, so operations that arrive
+     * meanwhile wait and then run on a freshly loaded shard, and a concurrent
+     * {@link #getHotel} cannot load the property before the save is complete.
+     *
+     * @param propertyId The property ID.
+     * @return true if the property was resident, false otherwise.
+     */
+    public boolean evict(int propertyId) {
+        CompletableFuture<Hotel> shard = shards.get(propertyId);
+        if (shard == null || !shard.isDone() || shard.isCompletedExceptionally()) {
+            return false;
+        }
+        Hotel hotel = shard.join();
+        synchronized (hotel) {
+            hotel.saveToDatabase();
+            HotelSnapshot.write(hotel, HotelSnapshot.defaultPath(propertyId));
+            return shards.remove(propertyId, shard);
+        }
+    }
+
+    /**
+     * Saves every resident shard to the database.
+     */
+    public void saveAll() {
+        for (Hotel hotel : residentHotels()) {
+            hotel.saveToDatabase();
+        }
+    }
+
+    /**
+     * Writes a local snapshot of every resident shard for a warm start next time.
+     * Call after {@link #saveAll()} on clean shutdown.
+     */
+    public void snapshotAll() {
+        for (Hotel hotel : residentHotels()) {
+            HotelSnapshot.write(hotel, HotelSnapshot.defaultPath(hotel.getPropertyId()));
+        }
+    }
+
+    /**
+     * Gets the IDs of the properties currently held in memory.
+     *
+     * @return Sorted set of resident property IDs.
+     */
+    public Set<Integer> getResidentProperties() {
+        Set<Integer> resident = new TreeSet<>();
+        for (Hotel hotel : residentHotels()) {
+            resident.add(hotel.getPropertyId());
+        }
+        return Collections.unmodifiableSet(resident);
+    }
+
+    /**
+     * Books a room in the given property.
+     *
+     * @param propertyId Property to book in.
+     * @param room       Room to book.
+     * @param guestName  Name of the guest.
+     * @param bookingId  Unique booking ID.
+     * @param checkIn    Check-in date.
+     * @param checkOut   Check-out date.
+     * @return true if booking is successful, false otherwise.
+     */
+    public boolean bookRoom(int propertyId, Room room, String guestName, String bookingId,
+                            LocalDate checkIn, LocalDate checkOut) {
+        return withHotel(propertyId, hotel -> hotel.bookRoom(room, guestName, bookingId, checkIn, checkOut));
+    }
+
+    /**
+     * Cancels a booking in the given property.
+     *
+     * @param propertyId Property the booking belongs to.
+     * @param bookingId  ID of the booking to cancel.
+     * @return true if cancellation successful, false otherwise.
+     */
+    public boolean cancelBook(int propertyId, String bookingId) {
+        return withHotel(propertyId, hotel -> hotel.cancelBook(bookingId));
+    }
+
+    /**
+     * Processes the payment for a booking in the given property.
+     *
+     * @param propertyId    Property the booking belongs to.
+     * @param bookingId     ID of the booking.
+     * @param paymentMethod Payment method used ("Cash" or "Card").
+     * @return true if payment is successful, false otherwise.
+     */
+    public boolean processPayment(int propertyId, String bookingId, String paymentMethod) {
+        return withHotel(propertyId, hotel -> hotel.processPayment(bookingId, paymentMethod));
+    }
+
+    /**
+     * Searches several properties in parallel for rooms of a type that are free for a stay.
+     * Resident properties are searched in memory; the others are searched in the database
+     * and stay unloaded.
+     *
+     * @param propertyIds Properties to search.
+     * @param checkIn     Check-in date.
+     * @param checkOut    Check-out date.
+     * @param type        Room type to look for, or null for any type.
+     * @return Free rooms per property, in the order the properties were given.
+     */
+    public Map<Integer, List<Room>> searchAvailable(List<Integer> propertyIds, LocalDate checkIn,
+                                                    LocalDate checkOut, Room.roomType type) {
+        Map<Integer, CompletableFuture<List<Room>>> pending = new LinkedHashMap<>();
+        for (int propertyId : propertyIds) {
+            pending.put(propertyId, CompletableFuture.supplyAsync(
+                    () -> searchProperty(propertyId, checkIn, checkOut, type), searchPool));
+        }
+
+        Map<Integer, List<Room>> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, CompletableFuture<List<Room>>> entry : pending.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().join());
+        }
+        return results;
+    }
+
+    /**
+     * Searches one property: its shard if resident or loading, else the database.
+     */
+    private List<Room> searchProperty(int propertyId, LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+        CompletableFuture<Hotel> shard = shards.get(propertyId);
+        if (shard != null) {
+            Hotel hotel = await(shard);
+            return hotel.getAvailableRoom(checkIn, checkOut, type);
+        }
+        return RoomDAO.findAvailableRooms(propertyId, checkIn, checkOut, type);
+    }
+
+    /**
+     * Searches every property known to the database in parallel, without loading the
+     * properties that are not resident.
+     *
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @param type     Room type to look for, or null for any type.
+     * @return Free rooms per property.
+     */
+    public Map<Integer, List<Room>> searchAllProperties(LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+        return searchAvailable(RoomDAO.loadPropertyIds(), checkIn, checkOut, type);
+    }
+}
@@ -0,0 +1,310 @@
+package org.example.hrs.src;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of one property's rooms and bookings, kept on local disk
+ * so that the next start does not have to re-read everything from MySQL.
+ *
+ * A snapshot is written on clean shutdown together with the database time of the load
+ * it reflects. On start it is read into memory in one go and decoded, and only rows whose
+ * updated_at is at or after that time are fetched from the database. The file is read
+ * rather than memory-mapped: a mapping stays open until garbage-collected, and on
+ * Windows a mapped file cannot be replaced by the next {@link #write}.
+ *
+ * Snapshots written for a {@link ChangeFeed} also record the sequence number of the last
+ * feed record they include. Format version 2 added that number; version 1 files are
+ * still read, as snapshots that belong to no feed.
+ */
+public class HotelSnapshot {
+
+    // "HRSS" - HRS snapshot
+    private static final int MAGIC = 0x48525353;
+    private static final short FORMAT_VERSION = 2;
+
+    // Written as the load time of a hotel that was not loaded from the database
+    private static final long NOT_LOADED = Long.MIN_VALUE;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final int propertyId;
+    private final Timestamp loadedAt;
+    private final long feedSequence;
+    private final List<Room> rooms;
+    private final List<Booking> bookings;
+
+    private HotelSnapshot(int propertyId, Timestamp loadedAt, long feedSequence, List<Room> rooms,
+                          List<Booking> bookings) {
+        this.propertyId = propertyId;
+        this.loadedAt = loadedAt;
+        this.feedSequence = feedSequence;
+        this.rooms = rooms;
+        this.bookings = bookings;
+    }
+
+    /**
+     * Gets the default snapshot file for a property. The directory can be changed with the
+     * {@code hrs.snapshotDir} system property and defaults to ~/.hrs/snapshots.
+     *
+     * @param propertyId The property ID.
+     * @return Path of the property's snapshot file.
+     */
+    public static Path defaultPath(int propertyId) {
+        String dir = System.getProperty("hrs.snapshotDir",
+                Path.of(System.getProperty("user.home"), ".hrs", "snapshots").toString());
+        return Path.of(dir, "property-" + propertyId + ".snap");
+    }
+
+    /**
+     * Writes a snapshot of a hotel's rooms, active bookings and booking history.
+     * The file is written next to the target and moved into place, so a crash never
+     * leaves a half-written snapshot behind.
+     *
+     * @param hotel The hotel to snapshot. It must have been loaded from the database.
+     * @param file  Target file.
+     * @return true if the snapshot was written, false otherwise.
+     */
+    public static boolean write(Hotel hotel, Path file) {
+        if (hotel.getLoadedAt() == null) {
+            return false; // Not backed by a database load, nothing to take a delta against
+        }
+        return write(hotel, file, 0);
+    }
+
+    /**
+     * Writes a snapshot tagged with the last change feed record it includes. The hotel need
+     * not have been loaded from the database; the caller must hold the hotel's lock so that
+     * the snapshot matches the sequence number.
+     *
+     * @param hotel        The hotel to snapshot.
+     * @param file         Target file.
+     * @param feedSequence Sequence number of the last feed record reflected in the hotel.
+     * @return true if the snapshot was written, false otherwise.
+     */
+    public static boolean write(Hotel hotel, Path file, long feedSequence) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeInt(hotel.getPropertyId());
+                out.writeLong(hotel.getLoadedAt() == null ? NOT_LOADED : hotel.getLoadedAt().getTime());
+                out.writeLong(feedSequence);
+
+                out.writeInt(hotel.getAllRoom().size());
+                for (Room room : hotel.getAllRoom()) {
+                    out.writeInt(room.getRoomNumber());
+                    out.writeByte(room.getType().ordinal());
+                    out.writeDouble(room.getPricePerNight());
+                    out.writeBoolean(room.isAvailable());
+                }
+
+                BookingStore history = hotel.getBookingHistory();
+                out.writeInt(hotel.getAllBookings().size() + history.size());
+                for (Booking booking : hotel.getAllBookings()) {
+                    writeBooking(out, booking);
+                }
+                for (int row = 0; row < history.size(); row++) {
+                    writeBooking(out, history.get(row));
+                }
+            }
+
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Warning: could not replace snapshot " + file + ", the next start will use the old one: "
+                        + e.getMessage());
+                Files.deleteIfExists(tmp);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads and decodes a snapshot file. The file is closed before returning, so it can be
+     * replaced right away.
+     *
+     * @param file       Snapshot file.
+     * @param propertyId Property the caller expects the snapshot to belong to.
+     * @return The decoded snapshot, or null if the file is missing, unreadable,
+     *         of an unknown format version or of another property.
+     */
+    public static HotelSnapshot read(Path file, int propertyId) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot too large: " + channel.size() + " bytes");
+            }
+            buf = ByteBuffer.allocate((int) channel.size());
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            buf.flip();
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+        try {
+
+            if (buf.getInt() != MAGIC) {
+                return null;
+            }
+            short version = buf.getShort();
+            if (version < 1 || version > FORMAT_VERSION) {
+                System.err.println("Ignoring snapshot " + file + " of unknown format version " + version);
+                return null;
+            }
+            if (buf.getInt() != propertyId) {
+                return null;
+            }
+            long loadTime = buf.getLong();
+            Timestamp loadedAt = loadTime == NOT_LOADED ? null : new Timestamp(loadTime);
+            long feedSequence = version >= 2 ? buf.getLong() : 0;
+
+            Room.roomType[] types = Room.roomType.values();
+            int roomCount = buf.getInt();
+            List<Room> rooms = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                int number = buf.getInt();
+                Room.roomType type = types[buf.get()];
+                double price = buf.getDouble();
+                boolean available = buf.get() != 0;
+                rooms.add(new Room(propertyId, number, type, price, available));
+            }
+
+            Map<Long, Room> roomsByNumber = BookingDAO.indexRooms(rooms);
+            int bookingCount = buf.getInt();
+            List<Booking> bookings = new ArrayList<>(bookingCount);
+            for (int i = 0; i < bookingCount; i++) {
+                String id = readString(buf);
+                String guest = readString(buf);
+                Room room = roomsByNumber.get(BookingDAO.roomKey(propertyId, buf.getInt()));
+                LocalDate checkIn = LocalDate.ofEpochDay(buf.getInt());
+                LocalDate checkOut = LocalDate.ofEpochDay(buf.getInt());
+                BookingStatus status = BookingStatus.fromCode(buf.get());
+                String paymentMethod = readString(buf);
+                int paymentDate = buf.getInt();
+
+                if (room == null) {
+                    continue;
+                }
+                Booking booking = new Booking(guest, room, id, checkIn, checkOut);
+                booking.setStatus(status);
+                booking.setPaymentMethod(paymentMethod);
+                if (paymentDate != NO_DATE) {
+                    booking.setPaymentDate(LocalDate.ofEpochDay(paymentDate));
+                }
+                bookings.add(booking);
+            }
+            return new HotelSnapshot(propertyId, loadedAt, feedSequence, rooms, bookings);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the property the snapshot belongs to.
+     *
+     * @return Property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Gets the database time of the load the snapshot reflects. Rows changed at or after
+     * this time have to be fetched again.
+     *
+     * @return Database time of the snapshotted load, or null if the hotel was not loaded
+     *         from the database.
+     */
+    public Timestamp getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Gets the sequence number of the last change feed record the snapshot includes.
+     *
+     * @return Feed sequence number, or 0 if the snapshot does not belong to a feed.
+     */
+    public long getFeedSequence() {
+        return feedSequence;
+    }
+
+    /**
+     * Gets the rooms stored in the snapshot.
+     *
+     * @return List of rooms.
+     */
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Gets the bookings stored in the snapshot, active and historical.
+     *
+     * @return List of bookings.
+     */
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    private static void writeBooking(DataOutputStream out, Booking booking) throws IOException {
+        writeString(out, booking.getBookingId());
+        writeString(out, booking.getGustName());
+        out.writeInt(booking.getBookedRoom().getRoomNumber());
+        out.writeInt((int) booking.getCheckIn().toEpochDay());
+        out.writeInt((int) booking.getCheckOut().toEpochDay());
+        out.writeByte(booking.getStatus().getCode());
+        writeString(out, booking.getPaymentMethod());
+        out.writeInt(booking.getPaymentDate() == null ? NO_DATE : (int) booking.getPaymentDate().toEpochDay());
+    }
+
+    /**
+     * Writes a string as a 2-byte length followed by its UTF-8 bytes; length -1 means null.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        short length = buf.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,457 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Randomized multi-threaded stress test for the booking invariants of {@link Hotel}.
+ *
+ * Worker threads hammer one shared hotel with bookings, cancellations, payments,
+ * check-ins, check-outs and re-optimisations while a checker thread verifies the
+ * invariants continuously:
+ * - no room holds two active stays that overlap
+ * - every booking ID belongs to exactly one booking
+ * - a booking is charged in the ledger if and only if it has been paid
+ *
+ * Every operation is recorded with its arguments and result. When an invariant breaks,
+ * the history up to that point is replayed sequentially on a fresh hotel and shrunk with
+ * delta debugging to a minimal sequence that still breaks it. If the sequential replay
+ * does not fail, the violation depends on the thread interleaving, and the full history
+ * is reported instead.
+ *
+ * Usage: {@code java org.example.hrs.src.HotelStressHarness key=value ...}
+ * - threads=8, opsPerThread=20000, rooms=20, horizonDays=30, seed=(random)
+ * - history=path   write the (minimal) failing history to a file
+ * - replay=path    replay a history file sequentially instead of running threads
+ *
+ * Operations of one thread are fully determined by the seed; with threads=1 the whole
+ * run is deterministic.
+ */
+public class HotelStressHarness {
+
+    /**
+     * Kinds of operation issued against the hotel.
+     */
+    public enum Kind {
+        BOOK, CANCEL, PAY, CHECKIN, CHECKOUT, REOPTIMIZE
+    }
+
+    /**
+     * One recorded operation with everything needed to replay it.
+     */
+    public static class Step {
+        private final long sequence;
+        private final int thread;
+        private final Kind kind;
+        private final String bookingId;
+        private final int roomNumber;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private boolean result;
+
+        Step(long sequence, int thread, Kind kind, String bookingId, int roomNumber,
+             LocalDate checkIn, LocalDate checkOut) {
+            this.sequence = sequence;
+            this.thread = thread;
+            this.kind = kind;
+            this.bookingId = bookingId;
+            this.roomNumber = roomNumber;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+
+        /**
+         * Formats the step as one line of a history file.
+         *
+         * @return The history line.
+         */
+        @Override
+        public String toString() {
+            return sequence + " " + thread + " " + kind + " " + bookingId + " " + roomNumber + " "
+                    + checkIn + " " + checkOut + " " + result;
+        }
+
+        /**
+         * Parses a line written by {@link #toString()}.
+         *
+         * @param line The history line.
+         * @return The step.
+         */
+        static Step parse(String line) {
+            String[] f = line.trim().split(" ");
+            Step step = new Step(Long.parseLong(f[0]), Integer.parseInt(f[1]), Kind.valueOf(f[2]),
+                    f[3].equals("null") ? null : f[3], Integer.parseInt(f[4]),
+                    f[5].equals("null") ? null : LocalDate.parse(f[5]),
+                    f[6].equals("null") ? null : LocalDate.parse(f[6]));
+            step.result = Boolean.parseBoolean(f[7]);
+            return step;
+        }
+    }
+
+    // Fixed base date so that histories replay identically on any day
+    private static final LocalDate BASE_DATE = LocalDate.of(2030, 1, 1);
+
+    private final int threads;
+    private final int opsPerThread;
+    private final int rooms;
+    private final int horizonDays;
+    private final long seed;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<Step> history = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, String> issuedIds = new ConcurrentHashMap<>();
+    private final AtomicInteger issuedCount = new AtomicInteger();
+    private volatile List<String> violation;
+    private volatile long violationSequence;
+
+    /**
+     * Constructs a harness.
+     *
+     * @param threads      Number of worker threads.
+     * @param opsPerThread Operations issued by each thread.
+     * @param rooms        Number of rooms in the hotel; few rooms means more contention.
+     * @param horizonDays  Days ahead over which stays are spread.
+     * @param seed         Seed of the per-thread random generators.
+     */
+    public HotelStressHarness(int threads, int opsPerThread, int rooms, int horizonDays, long seed) {
+        this.threads = threads;
+        this.opsPerThread = opsPerThread;
+        this.rooms = rooms;
+        this.horizonDays = horizonDays;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the stress test, or replays a history file, and prints the outcome.
+     * Exits with status 1 if an invariant was broken.
+     *
+     * @param args key=value options; see the class description.
+     */
+    public static void main(String[] args) throws IOException {
+        // Runs in memory only, so its booking IDs never meet another instance's
+        System.getProperties().putIfAbsent(BookingIdGenerator.NODE_ID_PROPERTY, "0");
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "20"));
+
+        if (options.containsKey("replay")) {
+            List<Step> steps = new ArrayList<>();
+            for (String line : Files.readAllLines(Path.of(options.get("replay")))) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    steps.add(Step.parse(line));
+                }
+            }
+            List<String> broken = quietly(() -> replay(steps, rooms));
+            System.out.println(broken.isEmpty() ? "Replay of " + steps.size() + " steps keeps all invariants"
+                    : "Replay breaks invariants: " + broken);
+            System.exit(broken.isEmpty() ? 0 : 1);
+        }
+
+        long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : System.nanoTime();
+        HotelStressHarness harness = new HotelStressHarness(
+                Integer.parseInt(options.getOrDefault("threads", "8")),
+                Integer.parseInt(options.getOrDefault("opsPerThread", "20000")),
+                rooms,
+                Integer.parseInt(options.getOrDefault("horizonDays", "30")),
+                seed);
+
+        System.out.println("Stress run with seed=" + seed);
+        List<String> broken = quietly(harness::run);
+        if (broken.isEmpty()) {
+            System.out.println("OK: " + harness.history.size() + " operations, no invariant violations");
+            return;
+        }
+
+        System.out.println("Invariant violated (" + broken.size() + "): "
+                + broken.subList(0, Math.min(5, broken.size())));
+        List<Step> failing = harness.failingHistory();
+        List<Step> minimal = quietly(() -> minimize(failing, rooms));
+        StringBuilder report = new StringBuilder();
+        if (minimal == null) {
+            report.append("# Sequential replay does not reproduce; failure depends on interleaving\n");
+            minimal = failing;
+        } else {
+            report.append("# Minimal failing history, ").append(minimal.size()).append(" of ")
+                    .append(failing.size()).append(" steps\n");
+        }
+        for (Step step : minimal) {
+            report.append(step).append('\n');
+        }
+        System.out.print(report);
+        if (options.containsKey("history")) {
+            Files.writeString(Path.of(options.get("history")), report);
+        }
+        System.exit(1);
+    }
+
+    /**
+     * Runs the worker threads and the invariant checker until the workers finish or an
+     * invariant breaks.
+     *
+     * @return The violated invariants, empty if none broke.
+     */
+    public List<String> run() {
+        Hotel hotel = newHotel(rooms);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> work(hotel, thread), "stress-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+
+        while (violation == null && workers.stream().anyMatch(Thread::isAlive)) {
+            check(hotel);
+            LockSupport.parkNanos(100_000);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (violation == null) {
+            check(hotel);
+        }
+        return violation == null ? List.of() : violation;
+    }
+
+    /**
+     * Gets the recorded operations up to the point the violation was seen, in issue order.
+     *
+     * @return The history leading to the violation.
+     */
+    public List<Step> failingHistory() {
+        List<Step> steps = new ArrayList<>();
+        for (Step step : history) {
+            if (step.sequence <= violationSequence) {
+                steps.add(step);
+            }
+        }
+        steps.sort(Comparator.comparingLong(s -> s.sequence));
+        return steps;
+    }
+
+    private void work(Hotel hotel, int thread) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + thread);
+        for (int i = 0; i < opsPerThread && violation == null; i++) {
+            int pick = random.nextInt(100);
+            Kind kind = pick < 40 ? Kind.BOOK : pick < 60 ? Kind.PAY : pick < 78 ? Kind.CANCEL
+                    : pick < 89 ? Kind.CHECKIN : pick < 99 ? Kind.CHECKOUT : Kind.REOPTIMIZE;
+
+            Step step;
+            if (kind == Kind.BOOK) {
+                String bookingId = "T" + thread + "-" + i;
+                LocalDate checkIn = BASE_DATE.plusDays(random.nextInt(horizonDays));
+                step = new Step(sequence.incrementAndGet(), thread, kind, bookingId,
+                        100 + random.nextInt(rooms), checkIn, checkIn.plusDays(1 + random.nextInt(5)));
+            } else if (kind == Kind.REOPTIMIZE) {
+                step = new Step(sequence.incrementAndGet(), thread, kind, null, 0,
+                        BASE_DATE.plusDays(random.nextInt(horizonDays)), null);
+            } else {
+                int issued = issuedCount.get();
+                String bookingId = issued == 0 ? "none" : issuedIds.get(random.nextInt(issued));
+                step = new Step(sequence.incrementAndGet(), thread, kind, bookingId, 0, null, null);
+            }
+
+            step.result = apply(hotel, step);
+            history.add(step);
+            if (kind == Kind.BOOK && step.result) {
+                issuedIds.put(issuedCount.getAndIncrement(), step.bookingId);
+            }
+        }
+    }
+
+    /**
+     * Checks the invariants under the hotel's lock and records the first violation.
+     */
+    private void check(Hotel hotel) {
+        List<String> broken;
+        synchronized (hotel) {
+            broken = checkInvariants(hotel);
+        }
+        // Read after the check: every step that had reached the hotel is numbered at most this
+        long seen = sequence.get();
+        if (!broken.isEmpty() && violation == null) {
+            violationSequence = seen;
+            violation = broken;
+        }
+    }
+
+    /**
+     * Checks the booking invariants of a hotel. Callers sharing the hotel with other
+     * threads must hold its lock.
+     *
+     * @param hotel The hotel to check.
+     * @return Descriptions of the violated invariants, empty if all hold.
+     */
+    public static List<String> checkInvariants(Hotel hotel) {
+        List<String> broken = new ArrayList<>();
+
+        Map<String, Booking> byId = new HashMap<>();
+        Map<Room, List<Booking>> byRoom = new IdentityHashMap<>();
+        for (Booking booking : hotel.getAllBookings()) {
+            Booking other = byId.put(booking.getBookingId(), booking);
+            if (other != null) {
+                broken.add("booking " + booking.getBookingId() + " exists twice (" + other.getStatus()
+                        + " and " + booking.getStatus() + ")");
+            }
+            if (booking.getStatus().blocksRoom()) {
+                byRoom.computeIfAbsent(booking.getBookedRoom(), r -> new ArrayList<>()).add(booking);
+            }
+
+            boolean paid = booking.getPaymentDate() != null;
+            boolean charged = hotel.getLedger().findByKey(booking.getBookingId() + ":charge") != null;
+            if (paid != charged) {
+                broken.add("booking " + booking.getBookingId() + " is " + booking.getStatus()
+                        + (paid ? " and paid but has no charge" : " and charged but not paid"));
+            }
+        }
+
+        for (List<Booking> stays : byRoom.values()) {
+            stays.sort(Comparator.comparing(Booking::getCheckIn));
+            for (int i = 1; i < stays.size(); i++) {
+                Booking before = stays.get(i - 1);
+                Booking after = stays.get(i);
+                if (after.getCheckIn().isBefore(before.getCheckOut())) {
+                    broken.add("room " + after.getBookedRoom().getRoomNumber() + " double-booked by "
+                            + before.getBookingId() + " and " + after.getBookingId());
+                }
+            }
+        }
+        return broken;
+    }
+
+    /**
+     * Replays steps one after another on a fresh hotel, checking after every step.
+     *
+     * @param steps Steps in the order to apply them.
+     * @param rooms Number of rooms of the hotel.
+     * @return The first violated invariants, empty if none broke.
+     */
+    public static List<String> replay(List<Step> steps, int rooms) {
+        Hotel hotel = newHotel(rooms);
+        for (Step step : steps) {
+            apply(hotel, step);
+            List<String> broken = checkInvariants(hotel);
+            if (!broken.isEmpty()) {
+                return broken;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Shrinks a failing history with delta debugging (ddmin): repeatedly tries to drop
+     * chunks of steps, keeping any smaller history whose sequential replay still fails.
+     *
+     * @param steps The failing history.
+     * @param rooms Number of rooms of the hotel.
+     * @return A 1-minimal failing history, or null if the full history does not fail when replayed.
+     */
+    public static List<Step> minimize(List<Step> steps, int rooms) {
+        if (replay(steps, rooms).isEmpty()) {
+            return null;
+        }
+        List<Step> current = steps;
+        int chunks = 2;
+        while (current.size() >= 2) {
+            int chunkSize = (int) Math.ceil((double) current.size() / chunks);
+            boolean reduced = false;
+            for (int start = 0; start < current.size(); start += chunkSize) {
+                List<Step> complement = new ArrayList<>(current.subList(0, start));
+                complement.addAll(current.subList(Math.min(current.size(), start + chunkSize), current.size()));
+                if (!complement.isEmpty() && !replay(complement, rooms).isEmpty()) {
+                    current = complement;
+                    chunks = Math.max(chunks - 1, 2);
+                    reduced = true;
+                    break;
+                }
+            }
+            if (!reduced) {
+                if (chunks >= current.size()) {
+                    break;
+                }
+                chunks = Math.min(chunks * 2, current.size());
+            }
+        }
+        return current;
+    }
+
+    private static boolean apply(Hotel hotel, Step step) {
+        switch (step.kind) {
+            case BOOK:
+                Room room = null;
+                for (Room r : hotel.getAllRoom()) {
+                    if (r.getRoomNumber() == step.roomNumber) {
+                        room = r;
+                    }
+                }
+                return room != null && hotel.bookRoom(room, "Guest " + step.thread, step.bookingId,
+                        step.checkIn, step.checkOut);
+            case CANCEL:
+                return hotel.cancelBook(step.bookingId);
+            case PAY:
+                return hotel.processPayment(step.bookingId, "Card");
+            case CHECKIN:
+                return hotel.checkIn(step.bookingId);
+            case CHECKOUT:
+                return hotel.checkOut(step.bookingId);
+            case REOPTIMIZE:
+                return hotel.reoptimizeAssignments(step.checkIn) > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Builds an in-memory hotel with rooms of all types.
+     */
+    private static Hotel newHotel(int rooms) {
+        Hotel hotel = new Hotel(Room.DEFAULT_PROPERTY_ID, false);
+        hotel.setWriteThrough(false);
+        Room.roomType[] types = Room.roomType.values();
+        for (int i = 0; i < rooms; i++) {
+            hotel.getAllRoom().add(new Room(Room.DEFAULT_PROPERTY_ID, 100 + i, types[i % types.length], 50, true));
+        }
+        return hotel;
+    }
+
+    /**
+     * Runs an action with stdout silenced; Hotel reports every rejected operation there.
+     */
+    private static <T> T quietly(Supplier<T> action) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return action.get();
+        } finally {
+            System.setOut(console);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.hrs.src;
+
+import java.sql.Timestamp;
+
+/**
+ * One immutable entry of the payment ledger: a charge or a refund against a booking.
+ * Amounts are held in cents so that running totals never drift.
+ */
+public class LedgerEntry {
+
+    /**
+     * Kind of money movement. The code is what is stored in the database.
+     */
+    public enum Kind {
+        CHARGE(1),
+        REFUND(2);
+
+        private final int code;
+
+        Kind(int code) {
+            this.code = code;
+        }
+
+        /**
+         * Gets the database code of the kind.
+         *
+         * @return The code.
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Looks up a kind by its database code.
+         *
+         * @param code The stored code.
+         * @return The matching kind.
+         * @throws IllegalArgumentException if the code is unknown.
+         */
+        public static Kind fromCode(int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown ledger entry type: " + code);
+        }
+    }
+
+    private final String idempotencyKey;
+    private final String bookingId;
+    private final int propertyId;
+    private final Kind kind;
+    private final long amountCents;
+    private final String paymentMethod;
+    private final Timestamp createdAt;
+
+    /**
+     * Constructs a ledger entry.
+     *
+     * @param idempotencyKey Key identifying the call that produced the entry.
+     * @param bookingId      Booking the money belongs to.
+     * @param propertyId     Property of the booking.
+     * @param kind           Charge or refund.
+     * @param amountCents    Signed amount in cents; refunds are negative.
+     * @param paymentMethod  Payment method ("Cash" or "Card").
+     * @param createdAt      Time the entry was recorded.
+     */
+    public LedgerEntry(String idempotencyKey, String bookingId, int propertyId, Kind kind,
+                       long amountCents, String paymentMethod, Timestamp createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.bookingId = bookingId;
+        this.propertyId = propertyId;
+        this.kind = kind;
+        this.amountCents = amountCents;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Gets the idempotency key of the call that produced the entry.
+     *
+     * @return The idempotency key.
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Gets the booking ID.
+     *
+     * @return The booking ID.
+     */
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    /**
+     * Gets the property ID.
+     *
+     * @return The property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Gets whether the entry is a charge or a refund.
+     *
+     * @return The entry kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the signed amount in cents.
+     *
+     * @return The amount; negative for refunds.
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Gets the payment method.
+     *
+     * @return The payment method.
+     */
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    /**
+     * Gets the time the entry was recorded.
+     *
+     * @return The creation time.
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,364 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Workload simulator for {@link Hotel}: drives a shared hotel from many threads with a
+ * configurable operation mix and arrival pattern, and reports per-operation latency
+ * percentiles and throughput in a fixed format that can be compared between runs.
+ *
+ * Usage: {@code java org.example.hrs.src.LoadSimulator key=value ...}
+ * - arrival=closed|poisson|burst  closed: each thread runs operations back to back with an
+ *                                 exponential think time; poisson: open-loop arrivals at a
+ *                                 fixed mean rate; burst: poisson with check-in-morning peaks
+ * - rate=2000                     mean arrivals per second (poisson, burst)
+ * - thinkMs=0                     mean think time between operations (closed)
+ * - burstFactor=5, burstPeriodSec=10, burstLengthSec=2
+ *                                 rate multiplier and window of the peaks (burst)
+ * - threads=8, durationSec=30, warmupSec=5, rooms=500, horizonDays=180, seed=42
+ * - mix=search:60,book:20,pay:10,cancel:8,checkin:2[,dbsearch:N]
+ * - db=false                      true saves every booking change with BookingDAO as it
+ *                                 happens (see Hotel#setWriteThrough), and enables dbsearch,
+ *                                 which queries RoomDAO directly; then -Dhrs.nodeId must be set
+ * - label=run, csv=path           append the report rows to a CSV file for comparison
+ *
+ * In open-loop modes latency is measured from the intended arrival time, so time spent
+ * waiting behind a slow operation counts against it instead of silently lowering the load.
+ */
+public class LoadSimulator {
+
+    /**
+     * Operations the simulator can issue.
+     */
+    public enum Operation {
+        SEARCH, BOOK, PAY, CANCEL, CHECKIN, DBSEARCH
+    }
+
+    private final Map<String, String> options;
+    private final Hotel hotel;
+    private final Map<Operation, Integer> mix;
+    private final Operation[] weighted;
+    private final int horizonDays;
+    private final boolean useDatabase;
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> successes = new EnumMap<>(Operation.class);
+    private final ConcurrentLinkedQueue<String> pendingBookings = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> confirmedBookings = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a simulator from key=value options.
+     *
+     * @param options Simulator options; see the class description.
+     */
+    public LoadSimulator(Map<String, String> options) {
+        this.options = options;
+        this.horizonDays = intOption("horizonDays", 180);
+        this.useDatabase = Boolean.parseBoolean(options.getOrDefault("db", "false"));
+        this.mix = parseMix(options.getOrDefault("mix", "search:60,book:20,pay:10,cancel:8,checkin:2"));
+
+        List<Operation> slots = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                slots.add(entry.getKey());
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        this.weighted = slots.toArray(new Operation[0]);
+
+        for (Operation op : Operation.values()) {
+            latencies.put(op, new LatencyHistogram());
+            successes.put(op, new LongAdder());
+        }
+
+        this.hotel = new Hotel(Room.DEFAULT_PROPERTY_ID, false);
+        hotel.setWriteThrough(useDatabase);
+        int rooms = intOption("rooms", 500);
+        for (int i = 0; i < rooms; i++) {
+            // Roughly 60% standard, 25% deluxe, 15% suites
+            Room.roomType type = i % 20 < 12 ? Room.roomType.STANDARD
+                    : i % 20 < 17 ? Room.roomType.DELUXE : Room.roomType.SUITE;
+            double price = type == Room.roomType.STANDARD ? 50 : type == Room.roomType.DELUXE ? 75 : 100;
+            hotel.getAllRoom().add(new Room(Room.DEFAULT_PROPERTY_ID, 1000 + i, type, price, true));
+        }
+    }
+
+    /**
+     * Runs a simulation and prints the report.
+     *
+     * @param args key=value options; see the class description.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Ignoring argument without key=value: " + arg);
+                continue;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        if (!Boolean.parseBoolean(options.getOrDefault("db", "false"))) {
+            // Runs in memory only, so its booking IDs never meet another instance's
+            System.getProperties().putIfAbsent(BookingIdGenerator.NODE_ID_PROPERTY, "0");
+        }
+        LoadSimulator simulator = new LoadSimulator(options);
+        simulator.run();
+        System.out.print(simulator.report());
+        String csv = options.get("csv");
+        if (csv != null) {
+            simulator.appendCsv(Path.of(csv));
+        }
+    }
+
+    /**
+     * Runs the warm-up and the measured phase, blocking until both are over.
+     */
+    public void run() {
+        String arrival = options.getOrDefault("arrival", "closed");
+        int threads = intOption("threads", 8);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long warmupNanos = intOption("warmupSec", 5) * 1_000_000_000L;
+        long durationNanos = intOption("durationSec", 30) * 1_000_000_000L;
+
+        // Hotel reports rejected operations on stdout; at these rates that would be the bottleneck
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = new SplittableRandom(seed + t);
+                Runnable loop = arrival.equals("closed")
+                        ? () -> closedLoop(random)
+                        : () -> openLoop(random, start, threads, arrival.equals("burst"));
+                Thread worker = new Thread(loop, "load-" + t);
+                worker.start();
+                workers.add(worker);
+            }
+
+            LockSupport.parkNanos(warmupNanos);
+            recording = true;
+            LockSupport.parkNanos(durationNanos);
+            running = false;
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Closed loop: the next operation starts when the previous one (plus think time) is done.
+     */
+    private void closedLoop(SplittableRandom random) {
+        double thinkMillis = doubleOption("thinkMs", 0);
+        while (running) {
+            long begin = System.nanoTime();
+            execute(weighted[random.nextInt(weighted.length)], random, begin);
+            if (thinkMillis > 0) {
+                LockSupport.parkNanos((long) (exponential(random, 1 / thinkMillis) * 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * Open loop: arrivals follow a Poisson process independent of how fast operations finish.
+     * Each thread carries an equal share of the rate; bursts are produced by thinning a
+     * stream generated at the peak rate.
+     */
+    private void openLoop(SplittableRandom random, long start, int threads, boolean bursty) {
+        double baseRate = doubleOption("rate", 2000) / threads / 1e9; // per nanosecond
+        double factor = bursty ? doubleOption("burstFactor", 5) : 1;
+        long period = intOption("burstPeriodSec", 10) * 1_000_000_000L;
+        long length = intOption("burstLengthSec", 2) * 1_000_000_000L;
+
+        long intended = System.nanoTime();
+        while (running) {
+            intended += (long) exponential(random, baseRate * factor);
+            boolean inBurst = bursty && (intended - start) % period < length;
+            if (bursty && !inBurst && random.nextDouble() >= 1 / factor) {
+                continue; // Thinned out: outside a peak only 1 in factor arrivals happen
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (running) {
+                execute(weighted[random.nextInt(weighted.length)], random, intended);
+            }
+        }
+    }
+
+    /**
+     * Executes one operation and records its latency from the given start time.
+     */
+    private void execute(Operation op, SplittableRandom random, long startedAt) {
+        boolean ok = perform(op, random);
+        long elapsed = System.nanoTime() - startedAt;
+        if (recording && running) {
+            latencies.get(op).record(elapsed);
+            if (ok) {
+                successes.get(op).increment();
+            }
+        }
+    }
+
+    private boolean perform(Operation op, SplittableRandom random) {
+        LocalDate checkIn = LocalDate.now().plusDays(random.nextInt(horizonDays));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+        switch (op) {
+            case SEARCH:
+                return !hotel.getAvailableRoom(checkIn, checkOut).isEmpty();
+            case DBSEARCH:
+                Room.roomType type = Room.roomType.values()[random.nextInt(Room.roomType.values().length)];
+                return useDatabase && !RoomDAO.findAvailableRooms(hotel.getPropertyId(), checkIn, checkOut, type).isEmpty();
+            case BOOK:
+                List<Room> rooms = hotel.getAllRoom();
+                Room room = rooms.get(random.nextInt(rooms.size()));
+                String bookingId = hotel.generateConfirmationNumber();
+                if (hotel.bookRoom(room, "Guest " + random.nextInt(100_000), bookingId, checkIn, checkOut)) {
+                    pendingBookings.add(bookingId);
+                    return true;
+                }
+                return false;
+            case PAY:
+                String unpaid = pendingBookings.poll();
+                if (unpaid != null && hotel.processPayment(unpaid, random.nextBoolean() ? "Card" : "Cash")) {
+                    confirmedBookings.add(unpaid);
+                    return true;
+                }
+                return false;
+            case CANCEL:
+                String victim = random.nextBoolean() ? pendingBookings.poll() : confirmedBookings.poll();
+                return victim != null && hotel.cancelBook(victim);
+            case CHECKIN:
+                String arriving = confirmedBookings.poll();
+                return arriving != null && hotel.checkIn(arriving);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Builds the report: the configuration, then one row per operation and a total.
+     *
+     * @return The report text.
+     */
+    public String report() {
+        double seconds = intOption("durationSec", 30);
+        StringBuilder out = new StringBuilder();
+        out.append("HRS load report ").append(options.getOrDefault("label", "run")).append('\n');
+        out.append("options: ").append(options).append('\n');
+        out.append(String.format(Locale.ROOT, "%-9s %10s %7s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "ok%", "ops/s", "mean(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+
+        LatencyHistogram total = new LatencyHistogram();
+        long totalOk = 0;
+        for (Operation op : mix.keySet()) {
+            LatencyHistogram h = latencies.get(op);
+            long ok = successes.get(op).sum();
+            out.append(row(op.name().toLowerCase(Locale.ROOT), h, ok, seconds));
+            total.add(h);
+            totalOk += ok;
+        }
+        out.append(row("total", total, totalOk, seconds));
+        out.append(hotel.getAvailabilityCache()).append('\n');
+        return out.toString();
+    }
+
+    /**
+     * Appends the report rows to a CSV file, writing a header if the file is new.
+     *
+     * @param file Target CSV file.
+     */
+    public void appendCsv(Path file) {
+        StringBuilder csv = new StringBuilder();
+        if (!Files.exists(file)) {
+            csv.append("label,op,count,ok,ops_per_sec,mean_us,p50_us,p99_us,p999_us,max_us\n");
+        }
+        double seconds = intOption("durationSec", 30);
+        String label = options.getOrDefault("label", "run");
+        for (Operation op : mix.keySet()) {
+            LatencyHistogram h = latencies.get(op);
+            csv.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    label, op.name().toLowerCase(Locale.ROOT), h.getCount(), successes.get(op).sum(),
+                    h.getCount() / seconds, h.getMean() / 1000, micros(h.getPercentile(0.5)),
+                    micros(h.getPercentile(0.99)), micros(h.getPercentile(0.999)), micros(h.getMax())));
+        }
+        try {
+            Files.writeString(file, csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error writing report " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String row(String name, LatencyHistogram h, long ok, double seconds) {
+        double okPercent = h.getCount() == 0 ? 0 : 100.0 * ok / h.getCount();
+        return String.format(Locale.ROOT, "%-9s %10d %6.1f%% %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                name, h.getCount(), okPercent, h.getCount() / seconds, h.getMean() / 1000,
+                micros(h.getPercentile(0.5)), micros(h.getPercentile(0.99)),
+                micros(h.getPercentile(0.999)), micros(h.getMax()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    /**
+     * Draws an exponentially distributed interval for a Poisson process with the given rate.
+     */
+    private static double exponential(SplittableRandom random, double rate) {
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        return mix;
+    }
+
+    private int intOption(String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private double doubleOption(String key, double defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -1,10 +1,8 @@
 package org.example.hrs.src;
 
 import javax.swing.*;
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.InputStream;
 
 /**
  * LoginSystem - Authentication gateway for Hotel Reservation System
@@ -72,30 +70,20 @@ public class LoginSystem {
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         imageLabel.setVerticalAlignment(SwingConstants.CENTER);
 
-        // Load and scale the image properly
-        try {
-            // Try loading from resources first
-            InputStream imgStream = LoginSystem.class.getResourceAsStream("C:/Users/Habibullah Khaliqyar/Desktop/HRS/Login.jpg");
-            if (imgStream != null) {
-                ImageIcon originalIcon = new ImageIcon(ImageIO.read(imgStream));
-                Image scaledImage = originalIcon.getImage().getScaledInstance(400, 500, Image.SCALE_SMOOTH);
-                imageLabel.setIcon(new ImageIcon(scaledImage));
-            } else {
-                // Fallback to file system path if not found in resources
-                String imagePath = "C:/Users/Habibullah Khaliqyar/Desktop/HRS/Login.jpg";
-                ImageIcon originalIcon = new ImageIcon(imagePath);
-                Image scaledImage = originalIcon.getImage().getScaledInstance(400, 500, Image.SCALE_SMOOTH);
-                imageLabel.setIcon(new ImageIcon(scaledImage));
-            }
-        } catch (Exception e) {
-            // Fallback design if image can't be loaded
-            imageLabel.setOpaque(true);
-            imageLabel.setBackground(new Color(255, 255, 255, 50));
-            imageLabel.setText("<html><center>HOTEL<br>MANAGEMENT<br>SYSTEM</center></html>");
-            imageLabel.setFont(new Font("Arial", Font.BOLD, 24));
-            imageLabel.setForeground(Color.WHITE);
-            System.err.println("Image loading failed: " + e.getMessage());
-        }
+        // Fallback design shown until the image is ready (or for good if it can't be loaded)
+        imageLabel.setOpaque(true);
+        imageLabel.setBackground(new Color(255, 255, 255, 50));
+        imageLabel.setText("<html><center>HOTEL<br>MANAGEMENT<br>SYSTEM</center></html>");
+        imageLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        imageLabel.setForeground(Color.WHITE);
+
+        // Decode and scale the image in the background
+        ImageLoader.load(400, 500, icon -> {
+            imageLabel.setText(null);
+            imageLabel.setOpaque(false);
+            imageLabel.setIcon(icon);
+            leftPanel.repaint();
+        }, "C:/Users/Habibullah Khaliqyar/Desktop/HRS/Login.jpg");
 
         leftPanel.add(imageLabel, BorderLayout.CENTER);
         mainPanel.add(leftPanel, BorderLayout.WEST);
@@ -149,9 +137,12 @@ public class LoginSystem {
             if (authenticate(username, password)) {
                 frame.dispose();
                 String role = username.equals(ADMIN_USER) ? "ADMIN" : "STAFF";
+                AuditLog.setActor(role + "/" + username);
+                AuditLog.log(AuditLog.Operation.LOGIN, true, Room.DEFAULT_PROPERTY_ID, null, 0, null, null, null);
 
                 Dashboard.showDashboard(args, role);
             } else {
+                AuditLog.log(AuditLog.Operation.LOGIN, false, Room.DEFAULT_PROPERTY_ID, null, 0, null, null, username);
                 JOptionPane.showMessageDialog(frame,
                         "Invalid username or password",
                         "Login Failed",
@@ -3,10 +3,14 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 /**
  * MainMenu - The primary GUI interface for the Hotel Reservation System
  *
@@ -29,9 +33,15 @@ import java.util.Optional;
  * and saved when exiting.
  */
 public class MainMenu {
-    // Hotel instance that manages all data
+    // Registry of per-property hotel shards
+    private static final HotelRegistry registry = new HotelRegistry();
+
+    // Hotel instance of the property this desk works for
     private static Hotel hotel;
 
+    // Follows the primary's change feed when this instance is a replica; null otherwise
+    private static FeedReplica replica;
+
     // Main application window
     private static JFrame mainFrame;
 
@@ -42,8 +52,39 @@ public class MainMenu {
      * Application entry point
      */
     public static void main(String[] args) {
-        hotel = new Hotel();
-        hotel.loadFromDatabase();
+        // The desk's property can be chosen with -Dhrs.propertyId=<id>
+        int propertyId = Integer.getInteger("hrs.propertyId", Room.DEFAULT_PROPERTY_ID);
+
+        // -Dhrs.feed.role=primary publishes a change feed of this desk's hotel;
+        // -Dhrs.feed.role=replica follows one instead of loading from the database
+        String feedRole = System.getProperty("hrs.feed.role", "none");
+
+        // Desks that take bookings need their own node ID for collision-free booking IDs
+        if (!feedRole.equals("replica")) {
+            try {
+                BookingIdGenerator.getDefault();
+            } catch (IllegalStateException e) {
+                System.err.println("Error starting: " + e.getMessage());
+                JOptionPane.showMessageDialog(null, e.getMessage(), "Configuration Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        if (feedRole.equals("replica")) {
+            hotel = new Hotel(propertyId, false);
+            hotel.setWriteThrough(false);
+            registry.register(hotel);
+            replica = new FeedReplica(hotel, ChangeFeed.defaultDirectory(propertyId));
+            replica.start();
+        } else {
+            hotel = registry.getHotel(propertyId);
+            if (feedRole.equals("primary")) {
+                try {
+                    ChangeFeed.open(hotel, ChangeFeed.defaultDirectory(propertyId));
+                } catch (IOException e) {
+                    System.err.println("Error starting change feed: " + e.getMessage());
+                }
+            }
+        }
 
         // Set up the main frame
         mainFrame = new JFrame("🏨 Hotel Reservation System");
@@ -66,9 +107,76 @@ public class MainMenu {
         cardPanel.add(createViewBookingsPanel(), "ViewBookings");
         cardPanel.add(createProcessPaymentPanel(), "ProcessPayment");
 
+        // Rebuild the tables whenever the hotel changes, at most once per frame
+        hotel.getEvents().addListener(new UiRefreshCoalescer(MainMenu::refreshRoomsTable, MainMenu::refreshBookingsTable));
+
+        if (replica == null) {
+            // Expire unpaid bookings, release no-shows and check guests out when their stay ends
+            BookingScheduler scheduler = new BookingScheduler(hotel);
+            scheduler.start();
+            List<Booking> overdue = scheduler.getOverdueArrivals();
+            SwingUtilities.invokeLater(() -> showOverdueArrivals(overdue));
+
+            // Learn which guests stayed in other properties or long ago, for returning-guest checks
+            Thread guestLoader = new Thread(GuestDirectory.getDefault()::loadFromDatabase, "guest-directory");
+            guestLoader.setDaemon(true);
+            guestLoader.start();
+        } else {
+            // Show the replica's lag, and redraw after it reloaded a snapshot
+            String title = mainFrame.getTitle();
+            long[] snapshotLoads = {0};
+            new Timer(1000, e -> {
+                mainFrame.setTitle(title + " (replica, lag " + replica.getLagMillis() + " ms)");
+                if (replica.getSnapshotLoads() != snapshotLoads[0]) {
+                    snapshotLoads[0] = replica.getSnapshotLoads();
+                    refreshRoomsTable();
+                    refreshBookingsTable();
+                }
+            }).start();
+        }
+
         mainFrame.add(cardPanel);
         mainFrame.setVisible(true);
     }
+    /**
+     * Tells the desk about confirmed bookings that passed their no-show cutoff while the
+     * application was not running; the scheduler leaves these alone, as the guests may
+     * well be in-house.
+     */
+    private static void showOverdueArrivals(List<Booking> overdue) {
+        if (overdue.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("These confirmed bookings are past their no-show cutoff.\n"
+                + "Check the guest in if they are in-house, otherwise cancel the booking:\n");
+        int shown = 0;
+        for (Booking booking : overdue) {
+            if (++shown > 20) {
+                message.append("... and ").append(overdue.size() - 20).append(" more\n");
+                break;
+            }
+            message.append(booking.getBookingId()).append("  ").append(booking.getGustName())
+                    .append(", room ").append(booking.getBookedRoom().getRoomNumber())
+                    .append(", ").append(booking.getCheckIn()).append(" to ").append(booking.getCheckOut()).append('\n');
+        }
+        JOptionPane.showMessageDialog(mainFrame, message.toString(), "Overdue Arrivals", JOptionPane.WARNING_MESSAGE);
+    }
+
+    /**
+     * Disables buttons that change bookings when this desk is a replica. A replica's hotel
+     * only reflects the primary's change feed: changes made here would never be saved,
+     * would be overwritten by the next snapshot and could reuse the primary's booking IDs.
+     */
+    private static void disableOnReplica(JButton... buttons) {
+        if (replica == null) {
+            return;
+        }
+        for (JButton button : buttons) {
+            button.setEnabled(false);
+            button.setToolTipText("Read-only replica: use the primary desk to change bookings");
+        }
+    }
+
     /**
      * Creates the main menu panel with navigation buttons
      */
@@ -92,6 +200,8 @@ public class MainMenu {
         processPaymentBtn.setFont(buttonFont);
         exitBtn.setFont(buttonFont);
 
+        disableOnReplica(bookRoomBtn, cancelBookingBtn, processPaymentBtn);
+
         bookRoomBtn.addActionListener(e -> cardLayout.show(cardPanel, "BookRoom"));
         cancelBookingBtn.addActionListener(e -> {
             refreshBookingsTable();
@@ -110,7 +220,11 @@ public class MainMenu {
             cardLayout.show(cardPanel, "ProcessPayment");
         });
         exitBtn.addActionListener(e -> {
-            hotel.saveToDatabase();
+            if (replica == null) {
+                registry.saveAll();
+                BookingArchiveDAO.archiveCompletedStays();
+                registry.snapshotAll();
+            }
             mainFrame.dispose();
         });
 
@@ -175,11 +289,12 @@ public class MainMenu {
                     return;
                 }
 
-                List<Room> availableRooms = hotel.getAvailableRoom(checkIn, checkOut);
+                // Cheapest rooms first
+                List<Room> availableRooms = hotel.search().stay(checkIn, checkOut).execute();
                 roomsModel.setRowCount(0);
 
                 if (availableRooms.isEmpty()) {
-                    JOptionPane.showMessageDialog(panel, "No rooms available for these dates.");
+                    offerWaitlist(panel, guestNameField.getText().trim(), checkIn, checkOut);
                 } else {
                     for (Room room : availableRooms) {
                         roomsModel.addRow(new Object[]{
@@ -194,6 +309,7 @@ public class MainMenu {
             }
         });
 
+        disableOnReplica(bookBtn);
         bookBtn.addActionListener(e -> {
             int selectedRow = roomsTable.getSelectedRow();
 
@@ -270,6 +386,7 @@ public class MainMenu {
         JButton backBtn = new JButton("Back to Menu");
         JButton refreshBtn = new JButton("Refresh");
 
+        disableOnReplica(cancelBtn);
         cancelBtn.addActionListener(e -> {
             int selectedRow = bookingsTable.getSelectedRow();
             if (selectedRow == -1) {
@@ -283,12 +400,16 @@ public class MainMenu {
                     "Confirm Cancellation", JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                if (hotel.cancelBook(bookingId)) {
-                    JOptionPane.showMessageDialog(panel, "Booking cancelled successfully\nRefund Amount:$"
+                List<Booking> waitlistBookings = hotel.cancelAndFillFromWaitlist(bookingId);
+                if (waitlistBookings != null) {
+                    StringBuilder message = new StringBuilder("Booking cancelled successfully\nRefund Amount:$"
                             +hotel.calculateRefundAmount(hotel.findById(bookingId)));
-                    // Refresh both bookings and rooms views
-                    refreshBookingsTable();
-                    refreshRoomsTable();
+                    for (Booking booking : waitlistBookings) {
+                        message.append("\nWaitlisted guest ").append(booking.getGustName())
+                                .append(" booked into room ").append(booking.getBookedRoom().getRoomNumber())
+                                .append(" (Booking ID: ").append(booking.getBookingId()).append(")");
+                    }
+                    JOptionPane.showMessageDialog(panel, message.toString());
                 } else {
                     JOptionPane.showMessageDialog(panel, "Cancellation failed. Please check the booking ID.");
                 }
@@ -362,12 +483,48 @@ public class MainMenu {
 
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
+        JButton checkInBtn = new JButton("Check In Selected");
+        JButton checkOutBtn = new JButton("Check Out Selected");
+        JButton exportBtn = new JButton("Export...");
         JButton refreshBtn = new JButton("Refresh");
         JButton backBtn = new JButton("Back to Menu");
 
+        checkInBtn.addActionListener(e -> {
+            int selectedRow = bookingsTable.getSelectedRow();
+            if (selectedRow == -1) {
+                JOptionPane.showMessageDialog(panel, "Please select a booking to check in.");
+                return;
+            }
+            String bookingId = (String) bookingsTable.getValueAt(selectedRow, 0);
+            Booking booking = hotel.findById(bookingId);
+            // Asked before checking in, which makes every guest one who has stayed
+            boolean returning = booking != null && GuestDirectory.getDefault().isReturningGuest(booking.getGustName());
+            if (!hotel.checkIn(bookingId)) {
+                JOptionPane.showMessageDialog(panel, "Check-in failed. Only confirmed (paid) bookings can be checked in.");
+            } else if (returning) {
+                JOptionPane.showMessageDialog(panel, "Welcome back, " + booking.getGustName() + "!");
+            }
+        });
+        checkOutBtn.addActionListener(e -> {
+            int selectedRow = bookingsTable.getSelectedRow();
+            if (selectedRow == -1) {
+                JOptionPane.showMessageDialog(panel, "Please select a booking to check out.");
+                return;
+            }
+            String bookingId = (String) bookingsTable.getValueAt(selectedRow, 0);
+            if (!hotel.checkOut(bookingId)) {
+                JOptionPane.showMessageDialog(panel, "Check-out failed. The guest is not checked in.");
+            }
+        });
+        exportBtn.addActionListener(e -> exportBookings(panel));
         refreshBtn.addActionListener(e -> refreshBookingsTable());
         backBtn.addActionListener(e -> cardLayout.show(cardPanel, "Menu"));
 
+        disableOnReplica(checkInBtn, checkOutBtn);
+
+        buttonPanel.add(checkInBtn);
+        buttonPanel.add(checkOutBtn);
+        buttonPanel.add(exportBtn);
         buttonPanel.add(refreshBtn);
         buttonPanel.add(backBtn);
 
@@ -412,6 +569,7 @@ public class MainMenu {
         JButton processBtn = new JButton("Process Payment");
         JButton backBtn = new JButton("Back to Menu");
 
+        disableOnReplica(processBtn);
         processBtn.addActionListener(e -> {
             String bookingId = bookingIdField.getText().trim();
             String method = methodField.getText().trim().toLowerCase();
@@ -432,7 +590,6 @@ public class MainMenu {
                 JOptionPane.showMessageDialog(panel, "Payment processed successfully.\nPaidAmount:$"+amount+"\nBooking confirmed!");
                 bookingIdField.setText("");
                 methodField.setText("");
-                refreshBookingsTable();
             } else {
                 JOptionPane.showMessageDialog(panel, "Payment failed. Please check booking status.");
             }
@@ -456,6 +613,87 @@ public class MainMenu {
 
         return panel;
     }
+    /**
+     * Exports the property's bookings, including archived ones, to a CSV file chosen by the user.
+     * The export runs in the background behind a modal progress dialog whose Cancel button
+     * stops it.
+     */
+    private static void exportBookings(JPanel panel) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("bookings.csv"));
+        if (chooser.showSaveDialog(panel) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+        boolean gzip = target.getFileName().toString().endsWith(".gz");
+
+        // The row count is not known up front, so the bar is indeterminate
+        JLabel note = new JLabel("Starting...");
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JButton cancelBtn = new JButton("Cancel");
+        JDialog dialog = new JDialog(mainFrame, "Exporting bookings to " + target.getFileName(), true);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(new EmptyBorder(15, 15, 15, 15));
+        content.add(note, BorderLayout.NORTH);
+        content.add(bar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttons.add(cancelBtn);
+        content.add(buttons, BorderLayout.SOUTH);
+        dialog.setContentPane(content);
+        dialog.setSize(400, 150);
+        dialog.setLocationRelativeTo(panel);
+
+        ReportExporter exporter = new ReportExporter(ReportExporter.Format.CSV, gzip, (rows, bytes) ->
+                SwingUtilities.invokeLater(() -> note.setText(String.format("%,d bookings written", rows))));
+        cancelBtn.addActionListener(e -> {
+            exporter.cancel();
+            cancelBtn.setEnabled(false);
+            note.setText("Cancelling...");
+        });
+
+        new Thread(() -> {
+            String message;
+            try {
+                long rows = exporter.exportBookings(hotel.getPropertyId(), LocalDate.of(1970, 1, 1),
+                        LocalDate.now().plusYears(10), target);
+                message = "Exported " + rows + " bookings to " + target;
+            } catch (CancellationException ex) {
+                message = "Export cancelled.";
+            } catch (IOException ex) {
+                message = "Export failed: " + ex.getMessage();
+            }
+            String result = message;
+            SwingUtilities.invokeLater(() -> {
+                dialog.dispose();
+                JOptionPane.showMessageDialog(panel, result);
+            });
+        }, "booking-export").start();
+        dialog.setVisible(true); // Blocks until the export thread disposes the dialog
+    }
+
+    /**
+     * Offers to put a guest on the waitlist when no room is free for their dates
+     */
+    private static void offerWaitlist(JPanel panel, String guestName, LocalDate checkIn, LocalDate checkOut) {
+        if (guestName.isEmpty()) {
+            JOptionPane.showMessageDialog(panel, "No rooms available for these dates.\n" +
+                    "Enter a guest name and search again to join the waitlist.");
+            return;
+        }
+
+        Room.roomType type = (Room.roomType) JOptionPane.showInputDialog(panel,
+                "No rooms available for these dates.\nAdd " + guestName + " to the waitlist for room type:",
+                "Join Waitlist", JOptionPane.QUESTION_MESSAGE, null,
+                Room.roomType.values(), Room.roomType.STANDARD);
+        if (type != null) {
+            hotel.addToWaitlist(guestName, checkIn, checkOut, type, 0);
+            JOptionPane.showMessageDialog(panel, guestName + " added to the waitlist.\n" +
+                    "A room will be booked automatically if one is cancelled.");
+        }
+    }
+
     /**
      * Refreshes the rooms table with current data
      */
@@ -466,15 +704,26 @@ public class MainMenu {
         JTable roomsTable = (JTable) scrollPane.getViewport().getView();
         DefaultTableModel model = (DefaultTableModel) roomsTable.getModel();
 
+        LocalDate today = LocalDate.now();
         model.setRowCount(0);
-        hotel.getAllRoom().forEach(room -> {
-            model.addRow(new Object[]{
-                    room.getRoomNumber(),
-                    room.getType(),
-                    String.format("$%.2f", room.getPricePerNight()),
-                    room.isAvailable() ? "Available" : "Booked"
+        synchronized (hotel) {
+            hotel.getAllRoom().forEach(room -> {
+                String status;
+                if (!room.isAvailable()) {
+                    status = "Out of Service";
+                } else if (hotel.isRoomBooked(today, today.plusDays(1), room)) {
+                    status = "Occupied Tonight";
+                } else {
+                    status = "Available";
+                }
+                model.addRow(new Object[]{
+                        room.getRoomNumber(),
+                        room.getType(),
+                        String.format("$%.2f", room.getPricePerNight()),
+                        status
+                });
             });
-        });
+        }
     }
     /**
      * Refreshes all booking tables with current data
@@ -490,17 +739,19 @@ public class MainMenu {
                         DefaultTableModel model = (DefaultTableModel) table.getModel();
 
                         model.setRowCount(0);
-                        hotel.getAllBookings().forEach(booking -> {
-                            model.addRow(new Object[]{
-                                    booking.getBookingId(),
-                                    booking.getGustName(),
-                                    booking.getBookedRoom().getRoomNumber(),
-                                    booking.getCheckIn(),
-                                    booking.getCheckOut(),
-                                    booking.getStatus(),
-                                    booking.getPaymentMethod() != null ? booking.getPaymentMethod() : "Pending"
+                        synchronized (hotel) {
+                            hotel.getAllBookings().forEach(booking -> {
+                                model.addRow(new Object[]{
+                                        booking.getBookingId(),
+                                        booking.getGustName(),
+                                        booking.getBookedRoom().getRoomNumber(),
+                                        booking.getCheckIn(),
+                                        booking.getCheckOut(),
+                                        booking.getStatus(),
+                                        booking.getPaymentMethod() != null ? booking.getPaymentMethod() : "Pending"
+                                });
                             });
-                        });
+                        }
                     }
                 }
             }
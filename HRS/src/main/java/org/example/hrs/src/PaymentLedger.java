@@ -0,0 +1,199 @@
+package org.example.hrs.src;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only ledger of the charges and refunds of one property.
+ *
+ * Every entry carries an idempotency key. Recording an entry under a key that is
+ * already in the ledger returns the existing entry and changes nothing, so a retried
+ * payment call can never charge twice. A running total per booking makes balance
+ * queries O(1).
+ *
+ * Entries are written to the database by a background writer using group commit:
+ * entries arriving within a short window are inserted together in one transaction.
+ * A batch that fails is kept and retried, and {@link #flush(long)} waits until
+ * everything recorded so far is stored.
+ */
+public class PaymentLedger {
+
+    // How long the writer waits for more entries before committing a batch
+    private static final long GROUP_COMMIT_MILLIS = Long.getLong("hrs.ledger.groupCommitMillis", 5);
+    private static final int MAX_BATCH = 500;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final List<LedgerEntry> entries = new ArrayList<>();
+    private final Map<String, LedgerEntry> byKey = new HashMap<>();
+    private final Map<String, Long> balances = new HashMap<>();
+
+    private final BlockingQueue<LedgerEntry> pending = new LinkedBlockingQueue<>();
+    private final Object durability = new Object();
+    private long queued;
+    private long written;
+    private Thread writer;
+    private boolean persistent = true;
+
+    /**
+     * Records a charge or refund unless an entry with the same idempotency key exists.
+     *
+     * @param idempotencyKey Key identifying the call; retries must pass the same key.
+     * @param bookingId      Booking the money belongs to.
+     * @param propertyId     Property of the booking.
+     * @param kind           Charge or refund.
+     * @param amountCents    Amount in cents, positive; refunds are stored negated.
+     * @param paymentMethod  Payment method.
+     * @return The new entry, or the entry already recorded under the key.
+     */
+    public synchronized LedgerEntry record(String idempotencyKey, String bookingId, int propertyId,
+                                           LedgerEntry.Kind kind, long amountCents, String paymentMethod) {
+        LedgerEntry existing = byKey.get(idempotencyKey);
+        if (existing != null) {
+            return existing;
+        }
+
+        long signed = kind == LedgerEntry.Kind.REFUND ? -Math.abs(amountCents) : Math.abs(amountCents);
+        LedgerEntry entry = new LedgerEntry(idempotencyKey, bookingId, propertyId, kind, signed, paymentMethod,
+                new Timestamp(System.currentTimeMillis()));
+        apply(entry);
+
+        if (persistent) {
+            synchronized (durability) {
+                queued++;
+            }
+            pending.add(entry);
+            startWriter();
+        }
+        return entry;
+    }
+
+    /**
+     * Replaces the in-memory ledger with entries that are already stored, e.g. after a
+     * load from the database. The entries are not written again.
+     *
+     * @param stored Entries in the order they were written.
+     */
+    public synchronized void load(List<LedgerEntry> stored) {
+        entries.clear();
+        byKey.clear();
+        balances.clear();
+        for (LedgerEntry entry : stored) {
+            apply(entry);
+        }
+    }
+
+    /**
+     * Finds the entry recorded under an idempotency key.
+     *
+     * @param idempotencyKey The key.
+     * @return The entry, or null if the key has not been used.
+     */
+    public synchronized LedgerEntry findByKey(String idempotencyKey) {
+        return byKey.get(idempotencyKey);
+    }
+
+    /**
+     * Gets the net amount paid for a booking: charges minus refunds.
+     *
+     * @param bookingId The booking ID.
+     * @return The balance in cents.
+     */
+    public synchronized long getBalanceCents(String bookingId) {
+        return balances.getOrDefault(bookingId, 0L);
+    }
+
+    /**
+     * Gets a copy of all entries in the order they were recorded.
+     *
+     * @return List of ledger entries.
+     */
+    public synchronized List<LedgerEntry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * Turns database writes on or off. With writes off the ledger lives in memory only,
+     * which is what simulations and tests want.
+     *
+     * @param persistent true to write entries to the database.
+     */
+    public synchronized void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    /**
+     * Waits until every entry recorded so far has been committed to the database.
+     *
+     * @param timeoutMillis Maximum time to wait.
+     * @return true if everything is stored, false if the timeout expired first.
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (durability) {
+            long target = queued;
+            while (written < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    durability.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void apply(LedgerEntry entry) {
+        entries.add(entry);
+        byKey.put(entry.getIdempotencyKey(), entry);
+        balances.merge(entry.getBookingId(), entry.getAmountCents(), Long::sum);
+    }
+
+    private void startWriter() {
+        if (writer == null) {
+            writer = new Thread(this::writeLoop, "ledger-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Background loop: collects entries for one group-commit window and writes them
+     * as a single transaction, retrying a failed batch until it succeeds.
+     */
+    private void writeLoop() {
+        List<LedgerEntry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(pending.take());
+                    TimeUnit.MILLISECONDS.sleep(GROUP_COMMIT_MILLIS);
+                }
+                pending.drainTo(batch, MAX_BATCH - batch.size());
+
+                if (PaymentLedgerDAO.insertBatch(batch)) {
+                    synchronized (durability) {
+                        written += batch.size();
+                        durability.notifyAll();
+                    }
+                    batch.clear();
+                } else {
+                    TimeUnit.MILLISECONDS.sleep(RETRY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
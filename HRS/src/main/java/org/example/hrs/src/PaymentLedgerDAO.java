@@ -0,0 +1,82 @@
+package org.example.hrs.src;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) class for the append-only `payment_ledger` table.
+ * Entries are only ever inserted; the table is created by the V7 schema migration.
+ */
+public class PaymentLedgerDAO {
+
+    /**
+     * Inserts a batch of ledger entries in one transaction. Entries whose idempotency key
+     * is already stored are skipped, so a batch can safely be written again after a failure
+     *
+     * @param entries Entries to insert.
+     * @return true if the batch was committed, false otherwise.
+     */
+    public static boolean insertBatch(List<LedgerEntry> entries) {
+        String sql = "INSERT IGNORE INTO payment_ledger " +
+                "(idempotency_key, booking_id, property_id, entry_type, amount_cents, payment_method, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (LedgerEntry entry : entries) {
+                    stmt.setString(1, entry.getIdempotencyKey());
+                    stmt.setString(2, entry.getBookingId());
+                    stmt.setInt(3, entry.getPropertyId());
+                    stmt.setInt(4, entry.getKind().getCode());
+                    stmt.setLong(5, entry.getAmountCents());
+                    stmt.setString(6, entry.getPaymentMethod());
+                    stmt.setTimestamp(7, entry.getCreatedAt());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error writing payment ledger: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Loads all ledger entries of a property in the order they were written
+     *
+     * @param propertyId The property ID.
+     * @return List of ledger entries.
+     */
+    public static List<LedgerEntry> loadByProperty(int propertyId) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        String sql = "SELECT * FROM payment_ledger WHERE property_id = ? ORDER BY entry_id";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new LedgerEntry(
+                            rs.getString("idempotency_key"),
+                            rs.getString("booking_id"),
+                            rs.getInt("property_id"),
+                            LedgerEntry.Kind.fromCode(rs.getInt("entry_type")),
+                            rs.getLong("amount_cents"),
+                            rs.getString("payment_method"),
+                            rs.getTimestamp("created_at")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading payment ledger: " + e.getMessage());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Data Access Object (DAO) for reports over bookings and payments.
+ *
+ * Queries cover live and archived bookings of one property, with revenue taken from the
+ * payment ledger. Rows are streamed to a {@link RowHandler} one at a time straight off the
+ * database cursor (MySQL streams a forward-only result set when the fetch size is
+ * Integer.MIN_VALUE), so a report of any size needs no more memory than one row.
+ * Reports read from a replica when one is configured, keeping their scans off the primary.
+ */
+public class ReportDAO {
+
+    /**
+     * Receives report rows as they are read.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * Handles one row.
+         *
+         * @param values Column values, in the order of the report's columns.
+         * @return true to continue, false to stop reading.
+         * @throws IOException If the row cannot be written.
+         */
+        boolean onRow(Object[] values) throws IOException;
+    }
+
+    /**
+     * Columns of {@link #streamBookings(int, LocalDate, LocalDate, RowHandler)}.
+     * Amounts are in cents.
+     */
+    public static final String[] BOOKING_COLUMNS = {
+            "booking_id", "guest_name", "room_number", "room_type", "check_in", "check_out", "nights",
+            "status", "payment_method", "payment_date", "charged_cents", "refunded_cents"
+    };
+
+    /**
+     * Columns of {@link #streamMonthlyRevenue(int, LocalDate, LocalDate, RowHandler)}.
+     * Amounts are in cents.
+     */
+    public static final String[] MONTHLY_REVENUE_COLUMNS = {
+            "month", "bookings", "cancelled", "room_nights", "charged_cents", "refunded_cents", "net_cents"
+    };
+
+    private static final String BOOKING_FIELDS =
+            "booking_id, guest_name, property_id, room_number, check_in, check_out, status, payment_method, payment_date";
+
+    // Live and archived bookings of a property checking in within [from, to)
+    private static final String ALL_BOOKINGS =
+            "(SELECT " + BOOKING_FIELDS + " FROM bookings WHERE property_id = ? AND check_in >= ? AND check_in < ? " +
+            "UNION ALL " +
+            "SELECT " + BOOKING_FIELDS + " FROM bookings_archive WHERE property_id = ? AND check_in >= ? AND check_in < ?)";
+
+    // Charged and refunded cents per booking of a property
+    private static final String LEDGER_TOTALS =
+            "(SELECT booking_id, " +
+            "SUM(CASE WHEN amount_cents > 0 THEN amount_cents ELSE 0 END) AS charged, " +
+            "SUM(CASE WHEN amount_cents < 0 THEN -amount_cents ELSE 0 END) AS refunded " +
+            "FROM payment_ledger WHERE property_id = ? GROUP BY booking_id)";
+
+    /**
+     * Streams one row per booking checking in within a date range, oldest first.
+     *
+     * @param propertyId The property.
+     * @param from       First check-in date included.
+     * @param to         Check-in dates from this one on are excluded.
+     * @param handler    Receives the rows; see {@link #BOOKING_COLUMNS}.
+     * @return true if every row was read, false if the handler stopped early.
+     * @throws SQLException If the query fails.
+     * @throws IOException  If the handler fails.
+     */
+    public static boolean streamBookings(int propertyId, LocalDate from, LocalDate to, RowHandler handler)
+            throws SQLException, IOException {
+        String sql = "SELECT b.booking_id, b.guest_name, b.room_number, r.type, b.check_in, b.check_out, " +
+                "DATEDIFF(b.check_out, b.check_in) AS nights, b.status, b.payment_method, b.payment_date, " +
+                "COALESCE(l.charged, 0) AS charged, COALESCE(l.refunded, 0) AS refunded " +
+                "FROM " + ALL_BOOKINGS + " b " +
+                "LEFT JOIN rooms r ON r.property_id = b.property_id AND r.room_number = b.room_number " +
+                "LEFT JOIN " + LEDGER_TOTALS + " l ON l.booking_id = b.booking_id " +
+                "ORDER BY b.check_in, b.booking_id";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = prepareStreaming(conn, sql, propertyId, from, to)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                Object[] row = new Object[BOOKING_COLUMNS.length];
+                while (rs.next()) {
+                    row[0] = rs.getString(1);
+                    row[1] = rs.getString(2);
+                    row[2] = rs.getInt(3);
+                    row[3] = rs.getString(4);
+                    row[4] = rs.getDate(5).toLocalDate();
+                    row[5] = rs.getDate(6).toLocalDate();
+                    row[6] = rs.getInt(7);
+                    row[7] = BookingStatus.fromColumn(rs.getString(8)).name();
+                    row[8] = rs.getString(9);
+                    Date paymentDate = rs.getDate(10);
+                    row[9] = paymentDate == null ? null : paymentDate.toLocalDate();
+                    row[10] = rs.getLong(11);
+                    row[11] = rs.getLong(12);
+                    if (!handler.onRow(row)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams one row per check-in month within a date range, oldest first. Cancelled
+     * bookings and no-shows count towards the bookings of their month but not the room nights.
+     *
+     * @param propertyId The property.
+     * @param from       First check-in date included.
+     * @param to         Check-in dates from this one on are excluded.
+     * @param handler    Receives the rows; see {@link #MONTHLY_REVENUE_COLUMNS}.
+     * @return true if every row was read, false if the handler stopped early.
+     * @throws SQLException If the query fails.
+     * @throws IOException  If the handler fails.
+     */
+    public static boolean streamMonthlyRevenue(int propertyId, LocalDate from, LocalDate to, RowHandler handler)
+            throws SQLException, IOException {
+        String sql = "SELECT DATE_FORMAT(b.check_in, '%Y-%m') AS month, COUNT(*) AS bookings, " +
+                "SUM(CASE WHEN b.status = " + BookingStatus.CANCELLED.getCode() + " THEN 1 ELSE 0 END) AS cancelled, " +
+                "SUM(CASE WHEN b.status IN (" + BookingStatus.CANCELLED.getCode() + ", " + BookingStatus.NO_SHOW.getCode() + ") " +
+                "THEN 0 ELSE DATEDIFF(b.check_out, b.check_in) END) AS room_nights, " +
+                "COALESCE(SUM(l.charged), 0) AS charged, COALESCE(SUM(l.refunded), 0) AS refunded " +
+                "FROM " + ALL_BOOKINGS + " b " +
+                "LEFT JOIN " + LEDGER_TOTALS + " l ON l.booking_id = b.booking_id " +
+                "GROUP BY month ORDER BY month";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = prepareStreaming(conn, sql, propertyId, from, to)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                Object[] row = new Object[MONTHLY_REVENUE_COLUMNS.length];
+                while (rs.next()) {
+                    long charged = rs.getLong(5);
+                    long refunded = rs.getLong(6);
+                    row[0] = rs.getString(1);
+                    row[1] = rs.getLong(2);
+                    row[2] = rs.getLong(3);
+                    row[3] = rs.getLong(4);
+                    row[4] = charged;
+                    row[5] = refunded;
+                    row[6] = charged - refunded;
+                    if (!handler.onRow(row)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prepares a forward-only, read-only statement that streams its rows, and binds the
+     * property and date range of {@link #ALL_BOOKINGS} and {@link #LEDGER_TOTALS}.
+     */
+    private static PreparedStatement prepareStreaming(Connection conn, String sql, int propertyId,
+                                                      LocalDate from, LocalDate to) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        int index = 1;
+        for (int table = 0; table < 2; table++) {
+            stmt.setInt(index++, propertyId);
+            stmt.setDate(index++, Date.valueOf(from));
+            stmt.setDate(index++, Date.valueOf(to));
+        }
+        stmt.setInt(index, propertyId);
+        return stmt;
+    }
+}
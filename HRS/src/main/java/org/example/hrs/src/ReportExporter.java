@@ -0,0 +1,398 @@
+package org.example.hrs.src;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes reports to CSV or JSON files as their rows stream in, for exports far larger
+ * than the heap.
+ *
+ * Rows are encoded into one reusable direct buffer that is written to a file channel
+ * whenever it fills, optionally through gzip, so memory use does not depend on the row
+ * count. The report goes to a ".part" file that replaces the target only once complete;
+ * a failed or cancelled export leaves no partial file behind. Progress is reported every
+ * {@link #PROGRESS_INTERVAL} rows, and {@link #cancel()} stops a running export from any thread.
+ *
+ * Usage: {@code java org.example.hrs.src.ReportExporter key=value ...}
+ * - report=bookings|revenue   one row per booking, or per check-in month
+ * - property=1, from=2020-01-01, to=(today)
+ * - format=csv|json, gzip=false, out=report.csv
+ */
+public class ReportExporter {
+
+    /**
+     * Output formats. JSON is an array with one object per row.
+     */
+    public enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * Receives progress while an export runs.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called periodically and once at the end.
+         *
+         * @param rows  Rows written so far.
+         * @param bytes Bytes written to the file so far (compressed size when gzipping).
+         */
+        void onProgress(long rows, long bytes);
+    }
+
+    /**
+     * Supplies the rows of a report, e.g. a {@link ReportDAO} query.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        /**
+         * Passes every row to the handler until it returns false.
+         *
+         * @param handler Receives the rows.
+         * @throws SQLException If reading fails.
+         * @throws IOException  If the handler fails.
+         */
+        void forEachRow(ReportDAO.RowHandler handler) throws SQLException, IOException;
+    }
+
+    public static final int PROGRESS_INTERVAL = 10_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Format format;
+    private final boolean gzip;
+    private final ProgressListener progress;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs an exporter.
+     *
+     * @param format   Output format.
+     * @param gzip     true to gzip the output.
+     * @param progress Receives progress, or null.
+     */
+    public ReportExporter(Format format, boolean gzip, ProgressListener progress) {
+        this.format = format;
+        this.gzip = gzip;
+        this.progress = progress;
+    }
+
+    /**
+     * Exports the bookings of a property checking in within a date range.
+     *
+     * @param propertyId The property.
+     * @param from       First check-in date included.
+     * @param to         Check-in dates from this one on are excluded.
+     * @param target     File to write.
+     * @return Number of rows written.
+     * @throws IOException If the query or the file fails.
+     */
+    public long exportBookings(int propertyId, LocalDate from, LocalDate to, Path target) throws IOException {
+        boolean done = false;
+        try {
+            long rows = export(ReportDAO.BOOKING_COLUMNS,
+                    handler -> ReportDAO.streamBookings(propertyId, from, to, handler), target);
+            done = true;
+            return rows;
+        } finally {
+            AuditLog.log(AuditLog.Operation.EXPORT, done, propertyId, null, 0, from, to, "bookings " + target.getFileName());
+        }
+    }
+
+    /**
+     * Exports bookings and revenue per check-in month of a property within a date range.
+     *
+     * @param propertyId The property.
+     * @param from       First check-in date included.
+     * @param to         Check-in dates from this one on are excluded.
+     * @param target     File to write.
+     * @return Number of rows written.
+     * @throws IOException If the query or the file fails.
+     */
+    public long exportMonthlyRevenue(int propertyId, LocalDate from, LocalDate to, Path target) throws IOException {
+        boolean done = false;
+        try {
+            long rows = export(ReportDAO.MONTHLY_REVENUE_COLUMNS,
+                    handler -> ReportDAO.streamMonthlyRevenue(propertyId, from, to, handler), target);
+            done = true;
+            return rows;
+        } finally {
+            AuditLog.log(AuditLog.Operation.EXPORT, done, propertyId, null, 0, from, to, "revenue " + target.getFileName());
+        }
+    }
+
+    /**
+     * Exports the rows of any source.
+     *
+     * @param columns Column names, in row order.
+     * @param source  The rows.
+     * @param target  File to write.
+     * @return Number of rows written.
+     * @throws IOException           If the source or the file fails.
+     * @throws CancellationException If {@link #cancel()} was called.
+     */
+    public long export(String[] columns, RowSource source, Path target) throws IOException {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            long rows;
+            try (FileChannel file = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                // Closing the gzip channel finishes the gzip stream and closes the file
+                WritableByteChannel channel = gzip
+                        ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE))
+                        : file;
+                try (WritableByteChannel out = channel) {
+                    RowWriter writer = new RowWriter(columns, out, file);
+                    writer.begin();
+                    source.forEachRow(writer::row);
+                    if (cancelled) {
+                        throw new CancellationException("Report export cancelled after " + writer.rows + " rows");
+                    }
+                    writer.end();
+                    rows = writer.rows;
+                } catch (SQLException e) {
+                    throw new IOException("Error reading report rows: " + e.getMessage(), e);
+                }
+            }
+            if (progress != null) {
+                progress.onProgress(rows, Files.size(part));
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            return rows;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Stops a running export at the next row. The export then throws a
+     * {@link CancellationException} and leaves no file behind.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the export was cancelled.
+     *
+     * @return true if {@link #cancel()} was called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Encodes rows into a reusable buffer and drains it to the channel when full.
+     */
+    private class RowWriter {
+        private final String[] columns;
+        private final WritableByteChannel channel;
+        private final FileChannel file;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final StringBuilder line = new StringBuilder(256);
+        private long rows;
+
+        RowWriter(String[] columns, WritableByteChannel channel, FileChannel file) {
+            this.columns = columns;
+            this.channel = channel;
+            this.file = file;
+        }
+
+        void begin() throws IOException {
+            if (format == Format.CSV) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    appendCsv(columns[i]);
+                }
+                line.append('\n');
+            } else {
+                line.append("[\n");
+            }
+            write();
+        }
+
+        boolean row(Object[] values) throws IOException {
+            if (cancelled) {
+                return false;
+            }
+            if (format == Format.CSV) {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    if (values[i] != null) {
+                        appendCsv(values[i].toString());
+                    }
+                }
+                line.append('\n');
+            } else {
+                line.append(rows == 0 ? "  {" : ",\n  {");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        line.append(", ");
+                    }
+                    appendJsonString(columns[i]);
+                    line.append(": ");
+                    Object value = values[i];
+                    if (value == null) {
+                        line.append("null");
+                    } else if (value instanceof Number) {
+                        line.append(value);
+                    } else {
+                        appendJsonString(value.toString());
+                    }
+                }
+                line.append('}');
+            }
+            write();
+            rows++;
+            if (progress != null && rows % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(rows, file.size());
+            }
+            return true;
+        }
+
+        void end() throws IOException {
+            if (format == Format.JSON) {
+                line.append(rows == 0 ? "]\n" : "\n]\n");
+                write();
+            }
+            drain();
+        }
+
+        /**
+         * Encodes the pending line into the buffer, draining the buffer as often as needed.
+         */
+        private void write() throws IOException {
+            CharBuffer chars = CharBuffer.wrap(line);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    break;
+                }
+            }
+            line.setLength(0);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void appendCsv(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        private void appendJsonString(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        line.append("\\\"");
+                        break;
+                    case '\\':
+                        line.append("\\\\");
+                        break;
+                    case '\n':
+                        line.append("\\n");
+                        break;
+                    case '\r':
+                        line.append("\\r");
+                        break;
+                    case '\t':
+                        line.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                }
+            }
+            line.append('"');
+        }
+    }
+
+    /**
+     * Runs an export from the command line and prints its progress.
+     *
+     * @param args key=value options, see the class description.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Ignoring argument without key=value: " + arg);
+                continue;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        String report = options.getOrDefault("report", "bookings");
+        int propertyId = Integer.parseInt(options.getOrDefault("property", String.valueOf(Room.DEFAULT_PROPERTY_ID)));
+        LocalDate from = LocalDate.parse(options.getOrDefault("from", "2020-01-01"));
+        LocalDate to = LocalDate.parse(options.getOrDefault("to", LocalDate.now().toString()));
+        Format format = Format.valueOf(options.getOrDefault("format", "csv").toUpperCase());
+        boolean gzip = Boolean.parseBoolean(options.getOrDefault("gzip", "false"));
+        Path target = Path.of(options.getOrDefault("out",
+                report + "." + format.name().toLowerCase() + (gzip ? ".gz" : "")));
+
+        ReportExporter exporter = new ReportExporter(format, gzip,
+                (rows, bytes) -> System.out.printf("%,d rows, %,d bytes%n", rows, bytes));
+        try {
+            long rows = report.equals("revenue")
+                    ? exporter.exportMonthlyRevenue(propertyId, from, to, target)
+                    : exporter.exportBookings(propertyId, from, to, target);
+            System.out.println("Exported " + rows + " rows to " + target);
+        } catch (IOException e) {
+            System.err.println("Error exporting report: " + e.getMessage());
+        }
+    }
+}
@@ -2,7 +2,8 @@ package org.example.hrs.src;
 
 /**
  * Represents a hotel room with attributes such as room number, type,
- * availability status, and price per night.
+ * availability status, and price per night. A room's availability only says whether it
+ * is in service; whether it is free on given nights follows from the hotel's bookings.
  */
 public class Room {
 
@@ -35,6 +36,12 @@ public class Room {
         }
     }
 
+    /**
+     * Property ID used for rooms created without an explicit property.
+     */
+    public static final int DEFAULT_PROPERTY_ID = 1;
+
+    private int propertyId;
     private int roomNumber;
     private roomType type;
     private double pricePerNight;
@@ -46,9 +53,23 @@ public class Room {
      * @param roomNumber     Room number.
      * @param type           Type of the room (STANDARD, DELUXE, SUITE).
      * @param pricePerNight  Price per night for the room.
-     * @param isAvailable    Availability status of the room.
+     * @param isAvailable    Whether the room is in service.
      */
     public Room(int roomNumber, roomType type, double pricePerNight, boolean isAvailable) {
+        this(DEFAULT_PROPERTY_ID, roomNumber, type, pricePerNight, isAvailable);
+    }
+
+    /**
+     * Constructs a Room belonging to a specific property.
+     *
+     * @param propertyId     ID of the property (hotel) the room belongs to.
+     * @param roomNumber     Room number, unique within the property.
+     * @param type           Type of the room (STANDARD, DELUXE, SUITE).
+     * @param pricePerNight  Price per night for the room.
+     * @param isAvailable    Whether the room is in service.
+     */
+    public Room(int propertyId, int roomNumber, roomType type, double pricePerNight, boolean isAvailable) {
+        this.propertyId = propertyId;
         this.roomNumber = roomNumber;
         this.type = type;
         this.isAvailable = isAvailable;
@@ -56,14 +77,23 @@ public class Room {
     }
 
     /**
-     * Checks if the room is available.
+     * Checks if the room is in service, i.e. can be booked at all.
      *
-     * @return true if the room is available, false otherwise.
+     * @return true if the room is in service, false otherwise.
      */
     public boolean isAvailable() {
         return isAvailable;
     }
 
+    /**
+     * Gets the ID of the property the room belongs to.
+     *
+     * @return Property ID.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
     /**
      * Gets the room number.
      *
@@ -92,14 +122,24 @@ public class Room {
     }
 
     /**
-     * Sets the availability of the room.
+     * Puts the room in or out of service. Use {@link Hotel#setRoomInService(Room, boolean)}
+     * for rooms of a hotel, so that its searches and inventory follow.
      *
-     * @param available true to mark the room as available, false otherwise.
+     * @param available true to mark the room as in service, false otherwise.
      */
     public void setAvailable(boolean available) {
         isAvailable = available;
     }
 
+    /**
+     * Sets the property the room belongs to.
+     *
+     * @param propertyId New property ID.
+     */
+    public void setPropertyId(int propertyId) {
+        this.propertyId = propertyId;
+    }
+
     /**
      * Sets the room number.
      *
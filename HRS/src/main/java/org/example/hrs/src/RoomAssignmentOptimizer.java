@@ -0,0 +1,295 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns concrete rooms to stays so that the calendar stays as sellable as possible.
+ *
+ * Taking whatever room happens to be selected leaves short gaps between stays that no
+ * guest can fill. The optimizer instead places stays one by one (earliest check-in first,
+ * longer stays first on the same day) into the room where they fit most tightly:
+ * - Gaps shorter than the minimum sellable stay are heavily penalised
+ * - Otherwise smaller leftover gaps are preferred (best fit), keeping empty rooms empty
+ * Room types never mix, so each type is optimised independently and in parallel.
+ */
+public class RoomAssignmentOptimizer {
+
+    // Cost of leaving a gap that is too short to ever be sold
+    private static final long ORPHAN_PENALTY = 1_000_000L;
+
+    // Gap cost used for an open-ended side (no stay before/after in the room)
+    private static final long OPEN_GAP = 10_000L;
+
+    /**
+     * A stay that needs a room.
+     */
+    public static class Request {
+        private final String bookingId;
+        private final String guestName;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final Room.roomType type;
+
+        /**
+         * Constructs a request.
+         *
+         * @param bookingId Existing booking ID, or null for a new booking.
+         * @param guestName Name of the guest.
+         * @param checkIn   Check-in date.
+         * @param checkOut  Check-out date.
+         * @param type      Room type required.
+         */
+        public Request(String bookingId, String guestName, LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+            this.bookingId = bookingId;
+            this.guestName = guestName;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.type = type;
+        }
+
+        /**
+         * Gets the booking being reassigned.
+         *
+         * @return The booking ID, or null for a new booking.
+         */
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        /**
+         * Gets the guest name.
+         *
+         * @return The name of the guest.
+         */
+        public String getGuestName() {
+            return guestName;
+        }
+
+        /**
+         * Gets the check-in date.
+         *
+         * @return The check-in date.
+         */
+        public LocalDate getCheckIn() {
+            return checkIn;
+        }
+
+        /**
+         * Gets the check-out date.
+         *
+         * @return The check-out date.
+         */
+        public LocalDate getCheckOut() {
+            return checkOut;
+        }
+
+        /**
+         * Gets the required room type.
+         *
+         * @return The room type.
+         */
+        public Room.roomType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Outcome of an optimisation run.
+     */
+    public static class Result {
+        private final Map<Request, Room> assignments;
+        private final List<Request> unassigned;
+
+        private Result(Map<Request, Room> assignments, List<Request> unassigned) {
+            this.assignments = assignments;
+            this.unassigned = unassigned;
+        }
+
+        /**
+         * Gets the room chosen for each placed request.
+         *
+         * @return Map from request to room.
+         */
+        public Map<Request, Room> getAssignments() {
+            return assignments;
+        }
+
+        /**
+         * Gets the requests for which no room of the type was free.
+         *
+         * @return Unplaced requests.
+         */
+        public List<Request> getUnassigned() {
+            return unassigned;
+        }
+    }
+
+    private final int minSellableNights;
+
+    /**
+     * Constructs an optimizer.
+     *
+     * @param minSellableNights Shortest gap (in nights) that can still be sold; shorter gaps are orphans.
+     */
+    public RoomAssignmentOptimizer(int minSellableNights) {
+        this.minSellableNights = minSellableNights;
+    }
+
+    /**
+     * Assigns rooms to a batch of requests around stays that are already fixed.
+     *
+     * @param rooms    Rooms that can be assigned (in service).
+     * @param fixed    Bookings that keep their rooms.
+     * @param requests Stays to place.
+     * @return The assignments and the requests that could not be placed.
+     */
+    public Result assign(List<Room> rooms, List<Booking> fixed, List<Request> requests) {
+        Map<Room.roomType, List<Room>> roomsByType = new EnumMap<>(Room.roomType.class);
+        for (Room room : rooms) {
+            roomsByType.computeIfAbsent(room.getType(), t -> new ArrayList<>()).add(room);
+        }
+        Map<Room.roomType, List<Request>> requestsByType = new EnumMap<>(Room.roomType.class);
+        for (Request request : requests) {
+            requestsByType.computeIfAbsent(request.getType(), t -> new ArrayList<>()).add(request);
+        }
+        Map<Room, List<Booking>> fixedByRoom = new IdentityHashMap<>();
+        for (Booking booking : fixed) {
+            fixedByRoom.computeIfAbsent(booking.getBookedRoom(), r -> new ArrayList<>()).add(booking);
+        }
+
+        List<Result> partials = new ArrayList<>(Collections.nCopies(Room.roomType.values().length, null));
+        requestsByType.entrySet().parallelStream().forEach(entry -> {
+            List<Room> typeRooms = roomsByType.getOrDefault(entry.getKey(), Collections.emptyList());
+            partials.set(entry.getKey().ordinal(), assignType(typeRooms, fixedByRoom, entry.getValue()));
+        });
+
+        Map<Request, Room> assignments = new HashMap<>();
+        List<Request> unassigned = new ArrayList<>();
+        for (Result partial : partials) {
+            if (partial != null) {
+                assignments.putAll(partial.assignments);
+                unassigned.addAll(partial.unassigned);
+            }
+        }
+        return new Result(assignments, unassigned);
+    }
+
+    /**
+     * Counts the nights in short, unsellable gaps between stays, summed over all rooms.
+     * Used to compare plans.
+     *
+     * @param rooms    Rooms to inspect.
+     * @param bookings Room-holding bookings.
+     * @return Number of orphaned nights.
+     */
+    public int countOrphanNights(List<Room> rooms, List<Booking> bookings) {
+        Map<Room, TreeMap<Long, Long>> calendars = new IdentityHashMap<>();
+        for (Room room : rooms) {
+            calendars.put(room, new TreeMap<>());
+        }
+        for (Booking booking : bookings) {
+            TreeMap<Long, Long> calendar = calendars.get(booking.getBookedRoom());
+            if (calendar != null) {
+                calendar.put(booking.getCheckIn().toEpochDay(), booking.getCheckOut().toEpochDay());
+            }
+        }
+
+        int orphans = 0;
+        for (TreeMap<Long, Long> calendar : calendars.values()) {
+            Long previousEnd = null;
+            for (Map.Entry<Long, Long> stay : calendar.entrySet()) {
+                if (previousEnd != null) {
+                    long gap = stay.getKey() - previousEnd;
+                    if (gap > 0 && gap < minSellableNights) {
+                        orphans += (int) gap;
+                    }
+                }
+                previousEnd = stay.getValue();
+            }
+        }
+        return orphans;
+    }
+
+    /**
+     * Greedy best-fit placement of one room type's requests.
+     */
+    private Result assignType(List<Room> rooms, Map<Room, List<Booking>> fixedByRoom, List<Request> requests) {
+        // Occupied nights per room: check-in epoch day -> check-out epoch day
+        List<TreeMap<Long, Long>> calendars = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            TreeMap<Long, Long> calendar = new TreeMap<>();
+            for (Booking booking : fixedByRoom.getOrDefault(room, Collections.emptyList())) {
+                calendar.put(booking.getCheckIn().toEpochDay(), booking.getCheckOut().toEpochDay());
+            }
+            calendars.add(calendar);
+        }
+
+        List<Request> ordered = new ArrayList<>(requests);
+        ordered.sort(Comparator.comparing(Request::getCheckIn)
+                .thenComparing(Request::getCheckOut, Comparator.reverseOrder()));
+
+        Map<Request, Room> assignments = new HashMap<>();
+        List<Request> unassigned = new ArrayList<>();
+        for (Request request : ordered) {
+            long start = request.getCheckIn().toEpochDay();
+            long end = request.getCheckOut().toEpochDay();
+
+            int bestRoom = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int i = 0; i < rooms.size(); i++) {
+                long cost = placementCost(calendars.get(i), start, end);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestRoom = i;
+                }
+            }
+
+            if (bestRoom < 0) {
+                unassigned.add(request);
+            } else {
+                calendars.get(bestRoom).put(start, end);
+                assignments.put(request, rooms.get(bestRoom));
+            }
+        }
+        return new Result(assignments, unassigned);
+    }
+
+    /**
+     * Cost of placing a stay into a room's calendar, or Long.MAX_VALUE if it overlaps another stay.
+     */
+    private long placementCost(TreeMap<Long, Long> calendar, long start, long end) {
+        Map.Entry<Long, Long> before = calendar.floorEntry(start);
+        if (before != null && before.getValue() > start) {
+            return Long.MAX_VALUE;
+        }
+        Map.Entry<Long, Long> after = calendar.ceilingEntry(start);
+        if (after != null && after.getKey() < end) {
+            return Long.MAX_VALUE;
+        }
+        long gapBefore = before == null ? -1 : start - before.getValue();
+        long gapAfter = after == null ? -1 : after.getKey() - end;
+        return gapCost(gapBefore) + gapCost(gapAfter);
+    }
+
+    /**
+     * Cost of a leftover gap; -1 stands for an open-ended side.
+     */
+    private long gapCost(long gap) {
+        if (gap < 0) {
+            return OPEN_GAP;
+        }
+        if (gap > 0 && gap < minSellableNights) {
+            return ORPHAN_PENALTY;
+        }
+        return Math.min(gap, OPEN_GAP);
+    }
+}
@@ -1,9 +1,13 @@
 package org.example.hrs.src;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
 
 public class RoomDAO {
     private static final String TABLE_NAME = "rooms";
@@ -14,8 +18,8 @@ public class RoomDAO {
      * @return true if operation succeeded, false otherwise
      */
     public static boolean saveRoom(Room room) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (room_number, type, price_per_night, is_available) " +
-                "VALUES (?, ?, ?, ?) " +
+        String sql = "INSERT INTO " + TABLE_NAME + " (property_id, room_number, type, price_per_night, is_available) " +
+                "VALUES (?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE " +
                 "type = VALUES(type), " +
                 "price_per_night = VALUES(price_per_night), " +
@@ -24,10 +28,11 @@ public class RoomDAO {
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, room.getRoomNumber());
-            stmt.setString(2, room.getType().name());
-            stmt.setDouble(3, room.getPricePerNight());
-            stmt.setBoolean(4, room.isAvailable());
+            stmt.setInt(1, room.getPropertyId());
+            stmt.setInt(2, room.getRoomNumber());
+            stmt.setString(3, room.getType().name());
+            stmt.setDouble(4, room.getPricePerNight());
+            stmt.setBoolean(5, room.isAvailable());
 
             int affectedRows = stmt.executeUpdate();
             return affectedRows > 0;
@@ -39,14 +44,14 @@ public class RoomDAO {
     }
 
     /**
-     * Loads all rooms from the database
+     * Loads all rooms from the database, from a replica if one is configured
      * @return List of all rooms
      */
     public static List<Room> loadAllRooms() {
         List<Room> rooms = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME;
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -61,17 +66,128 @@ public class RoomDAO {
     }
 
     /**
-     * Finds a room by room number
+     * Loads the rooms of one property
+     * @param propertyId The property to load
+     * @return List of the property's rooms
+     */
+    public static List<Room> loadRoomsByProperty(int propertyId) {
+        List<Room> rooms = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE property_id = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rooms.add(mapResultSetToRoom(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading rooms: " + e.getMessage());
+        }
+
+        return rooms;
+    }
+
+    /**
+     * Loads the rooms of one property that were inserted or changed at or after a point in time
+     * @param propertyId The property to load
+     * @param since Database time from which changes are wanted
+     * @return List of changed rooms
+     */
+    public static List<Room> loadRoomsChangedSince(int propertyId, Timestamp since) {
+        List<Room> rooms = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE property_id = ? AND updated_at >= ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            stmt.setTimestamp(2, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rooms.add(mapResultSetToRoom(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading changed rooms: " + e.getMessage());
+        }
+
+        return rooms;
+    }
+
+    /**
+     * Loads the room numbers of one property, to find rooms deleted since a snapshot
+     * @param propertyId The property to load
+     * @return Set of room numbers, or null if the rooms could not be read
+     */
+    public static Set<Integer> loadRoomNumbersByProperty(int propertyId) {
+        Set<Integer> numbers = new HashSet<>();
+        String sql = "SELECT room_number FROM " + TABLE_NAME + " WHERE property_id = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, propertyId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    numbers.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading room numbers: " + e.getMessage());
+            return null;
+        }
+
+        return numbers;
+    }
+
+    /**
+     * Lists the IDs of all properties that have rooms
+     * @return Sorted list of property IDs
+     */
+    public static List<Integer> loadPropertyIds() {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT DISTINCT property_id FROM " + TABLE_NAME + " ORDER BY property_id";
+
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading properties: " + e.getMessage());
+        }
+
+        return ids;
+    }
+
+    /**
+     * Finds a room by room number in the default property
      * @param roomNumber The room number to search for
      * @return Optional containing the room if found
      */
     public static Optional<Room> findRoomByNumber(int roomNumber) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE room_number = ?";
+        return findRoomByNumber(Room.DEFAULT_PROPERTY_ID, roomNumber);
+    }
 
-        try (Connection conn = DBUtil.getConnection();
+    /**
+     * Finds a room by property and room number, reading from a replica if one is configured
+     * @param propertyId The property the room belongs to
+     * @param roomNumber The room number to search for
+     * @return Optional containing the room if found
+     */
+    public static Optional<Room> findRoomByNumber(int propertyId, int roomNumber) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE property_id = ? AND room_number = ?";
+
+        try (Connection conn = DBUtil.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, roomNumber);
+            stmt.setInt(1, propertyId);
+            stmt.setInt(2, roomNumber);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
@@ -89,10 +205,11 @@ public class RoomDAO {
     public static boolean updateRoom(Room room) {
         try (Connection connection = DBUtil.getConnection();
              PreparedStatement statement = connection.prepareStatement(
-                     "UPDATE rooms SET is_available = ? WHERE room_number = ?")) {
+                     "UPDATE rooms SET is_available = ? WHERE property_id = ? AND room_number = ?")) {
 
             statement.setBoolean(1, room.isAvailable());
-            statement.setInt(2, room.getRoomNumber());
+            statement.setInt(2, room.getPropertyId());
+            statement.setInt(3, room.getRoomNumber());
 
             return statement.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -102,17 +219,28 @@ public class RoomDAO {
     }
 
     /**
-     * Deletes a room from the database
+     * Deletes a room of the default property from the database
      * @param roomNumber The room number to delete
      * @return true if deletion succeeded
      */
     public static boolean deleteRoom(int roomNumber) {
-        String sql = "DELETE FROM " + TABLE_NAME + " WHERE room_number = ?";
+        return deleteRoom(Room.DEFAULT_PROPERTY_ID, roomNumber);
+    }
+
+    /**
+     * Deletes a room from the database
+     * @param propertyId The property the room belongs to
+     * @param roomNumber The room number to delete
+     * @return true if deletion succeeded
+     */
+    public static boolean deleteRoom(int propertyId, int roomNumber) {
+        String sql = "DELETE FROM " + TABLE_NAME + " WHERE property_id = ? AND room_number = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, roomNumber);
+            stmt.setInt(1, propertyId);
+            stmt.setInt(2, roomNumber);
             int affectedRows = stmt.executeUpdate();
             return affectedRows > 0;
 
@@ -123,14 +251,14 @@ public class RoomDAO {
     }
 
     /**
-     * Gets all available rooms
+     * Gets all available rooms, from a replica if one is configured
      * @return List of available rooms
      */
     public static List<Room> getAvailableRooms() {
         List<Room> rooms = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE is_available = TRUE";
 
-        try (Connection conn = DBUtil.getConnection();
+        try (Connection conn = DBUtil.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -144,11 +272,81 @@ public class RoomDAO {
         return rooms;
     }
 
+    /**
+     * Gets the rooms of the default property that are in service and free for every night of a stay.
+     * @param checkIn Check-in date
+     * @param checkOut Check-out date (the guest does not stay this night)
+     * @param type Room type to restrict to, or null for any type
+     * @return List of free rooms ordered by room number
+     */
+    public static List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut, Room.roomType type) {
+        return findAvailableRooms(Room.DEFAULT_PROPERTY_ID, checkIn, checkOut, type);
+    }
+
+    /**
+     * Gets the rooms of a property that are in service and free for every night of a stay.
+     * Runs as an anti-join against bookings, served by the
+     * bookings (property_id, room_number, check_in, check_out) index, so only free rooms leave MySQL.
+     * @param propertyId The property to search
+     * @param checkIn Check-in date
+     * @param checkOut Check-out date (the guest does not stay this night)
+     * @param type Room type to restrict to, or null for any type
+     * @return List of free rooms ordered by room number
+     */
+    public static List<Room> findAvailableRooms(int propertyId, LocalDate checkIn, LocalDate checkOut,
+                                                Room.roomType type) {
+        List<Room> rooms = new ArrayList<>();
+        String sql = "SELECT r.* FROM " + TABLE_NAME + " r " +
+                "WHERE r.property_id = ? AND r.is_available = TRUE " +
+                (type != null ? "AND r.type = ? " : "") +
+                "AND NOT EXISTS (SELECT 1 FROM bookings b " +
+                "WHERE b.property_id = r.property_id AND b.room_number = r.room_number " +
+                "AND b.check_in < ? AND b.check_out > ? " +
+                "AND b.status IN (" + blockingStatusCodes() + ")) " +
+                "ORDER BY r.room_number";
+
+        try (Connection conn = DBUtil.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, propertyId);
+            if (type != null) {
+                stmt.setString(index++, type.name());
+            }
+            stmt.setDate(index++, Date.valueOf(checkOut));
+            stmt.setDate(index, Date.valueOf(checkIn));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rooms.add(mapResultSetToRoom(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding available rooms: " + e.getMessage());
+        }
+
+        return rooms;
+    }
+
+    /**
+     * Builds the SQL list of status codes whose bookings hold their room
+     */
+    private static String blockingStatusCodes() {
+        StringJoiner codes = new StringJoiner(", ");
+        for (BookingStatus status : BookingStatus.values()) {
+            if (status.blocksRoom()) {
+                codes.add(String.valueOf(status.getCode()));
+            }
+        }
+        return codes.toString();
+    }
+
     /**
      * Helper method to map ResultSet to Room object
      */
     private static Room mapResultSetToRoom(ResultSet rs) throws SQLException {
         return new Room(
+                rs.getInt("property_id"),
                 rs.getInt("room_number"),
                 Room.roomType.valueOf(rs.getString("type")),
                 rs.getDouble("price_per_night"),
@@ -0,0 +1,215 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-night booking counts for each room type, answering "how many DELUXE rooms are free
+ * on every night from X to Y" in O(log n).
+ *
+ * The answer is the type's free count on its busiest night of the stay. When different
+ * rooms are free on different nights, fewer rooms than that may be free for the whole stay
+ * as currently assigned, so it is an upper bound for picking a room and exact as a
+ * count of sellable room-type inventory.
+ *
+ * Each room type has a segment tree over epoch days holding the number of in-service rooms
+ * booked per night. A stay adds or removes one over its nights (range add), and the free
+ * count for a stay is the in-service room count minus the maximum booked on any of its
+ * nights (range max). Nodes are only created for days that have bookings, and a node's
+ * pending add is kept on the node rather than pushed down, so queries never allocate.
+ *
+ * Only bookings in rooms that are in service are counted; taking a room in or out of
+ * service needs a {@link #rebuild(List, List)}.
+ */
+public class RoomInventory implements HotelListener {
+
+    // Epoch days covered: 1970-01-01 to the 2680s
+    private static final int DAYS = 1 << 18;
+
+    /**
+     * Sparse segment tree over [0, DAYS) with range add and range max.
+     */
+    private static final class NightCounts {
+        // Node 0 is "no child"; node 1 is the root
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private int[] max = new int[64];
+        private int[] add = new int[64];
+        private int nodes = 2;
+
+        void add(int from, int to, int delta) {
+            add(1, 0, DAYS, from, to, delta);
+        }
+
+        int max(int from, int to) {
+            return max(1, 0, DAYS, from, to);
+        }
+
+        private void add(int node, int low, int high, int from, int to, int delta) {
+            if (from <= low && high <= to) {
+                add[node] += delta;
+                max[node] += delta;
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            if (from < mid) {
+                if (left[node] == 0) {
+                    int child = newNode(); // May replace the arrays, so not inlined
+                    left[node] = child;
+                }
+                add(left[node], low, mid, from, to, delta);
+            }
+            if (to > mid) {
+                if (right[node] == 0) {
+                    int child = newNode();
+                    right[node] = child;
+                }
+                add(right[node], mid, high, from, to, delta);
+            }
+            max[node] = add[node] + Math.max(max[left[node]], max[right[node]]);
+        }
+
+        private int max(int node, int low, int high, int from, int to) {
+            if (node == 0) {
+                return 0;
+            }
+            if (from <= low && high <= to) {
+                return max[node];
+            }
+            int mid = (low + high) >>> 1;
+            int best = 0;
+            if (from < mid) {
+                best = max(left[node], low, mid, from, to);
+            }
+            if (to > mid) {
+                best = Math.max(best, max(right[node], mid, high, from, to));
+            }
+            return add[node] + best;
+        }
+
+        private int newNode() {
+            if (nodes == left.length) {
+                int size = nodes * 2;
+                left = Arrays.copyOf(left, size);
+                right = Arrays.copyOf(right, size);
+                max = Arrays.copyOf(max, size);
+                add = Arrays.copyOf(add, size);
+            }
+            return nodes++;
+        }
+    }
+
+    private final Map<Room.roomType, NightCounts> booked = new EnumMap<>(Room.roomType.class);
+    private final Map<Room.roomType, Integer> inService = new EnumMap<>(Room.roomType.class);
+
+    /**
+     * Constructs an empty inventory.
+     */
+    public RoomInventory() {
+        clear();
+    }
+
+    /**
+     * Recounts everything from the rooms and the bookings holding them.
+     *
+     * @param rooms    All rooms.
+     * @param bookings Bookings; those that do not hold their room are skipped.
+     */
+    public synchronized void rebuild(List<Room> rooms, List<Booking> bookings) {
+        clear();
+        for (Room room : rooms) {
+            if (room.isAvailable()) {
+                inService.merge(room.getType(), 1, Integer::sum);
+            }
+        }
+        for (Booking booking : bookings) {
+            if (booking.getStatus().blocksRoom()) {
+                change(booking.getBookedRoom(), booking.getCheckIn(), booking.getCheckOut(), 1);
+            }
+        }
+    }
+
+    /**
+     * Counts the rooms of a type that are free on the busiest night of a stay.
+     *
+     * @param type     Room type.
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @return Fewest in-service rooms of that type free on any night of the stay.
+     */
+    public synchronized int countFree(Room.roomType type, LocalDate checkIn, LocalDate checkOut) {
+        int from = day(checkIn);
+        int to = day(checkOut);
+        int mostBooked = to > from ? booked.get(type).max(from, to) : 0;
+        return Math.max(0, inService.get(type) - mostBooked);
+    }
+
+    /**
+     * Counts the rooms of a type booked on one night.
+     *
+     * @param type  Room type.
+     * @param night The night.
+     * @return Number of in-service rooms of that type booked that night.
+     */
+    public synchronized int countBooked(Room.roomType type, LocalDate night) {
+        int day = day(night);
+        return booked.get(type).max(day, day + 1);
+    }
+
+    /**
+     * Gets the number of rooms of a type that are in service.
+     *
+     * @param type Room type.
+     * @return In-service room count.
+     */
+    public synchronized int getInService(Room.roomType type) {
+        return inService.get(type);
+    }
+
+    /**
+     * Updates the counts as bookings take and release rooms. Room changes are left
+     * to the hotel, which rebuilds the inventory.
+     */
+    @Override
+    public synchronized void onEvent(HotelEvent event) {
+        switch (event.getType()) {
+            case BOOKED:
+                if (event.getStatus().blocksRoom()) {
+                    change(event.getRoom(), event.getCheckIn(), event.getCheckOut(), 1);
+                }
+                break;
+            case CANCELLED:
+            case RELEASED:
+                change(event.getRoom(), event.getCheckIn(), event.getCheckOut(), -1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void change(Room room, LocalDate checkIn, LocalDate checkOut, int delta) {
+        int from = day(checkIn);
+        int to = day(checkOut);
+        if (room.isAvailable() && to > from) {
+            booked.get(room.getType()).add(from, to, delta);
+        }
+    }
+
+    private void clear() {
+        for (Room.roomType type : Room.roomType.values()) {
+            booked.put(type, new NightCounts());
+            inService.put(type, 0);
+        }
+    }
+
+    private static int day(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < 0 || day >= DAYS) {
+            throw new IllegalArgumentException("Date out of range for room inventory: " + date);
+        }
+        return (int) day;
+    }
+}
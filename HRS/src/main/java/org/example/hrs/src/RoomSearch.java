@@ -0,0 +1,332 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Fluent room search with filters, ordering and pagination, e.g. the three cheapest
+ * deluxe rooms under $120 for a stay:
+ * <pre>
+ * hotel.search().type(Room.roomType.DELUXE).maxPrice(120).stay(checkIn, checkOut).limit(3).execute();
+ * </pre>
+ *
+ * Searches ordered by price walk the hotel's per-type price-sorted room lists from the
+ * cheap (or expensive) end, merging the types with a small heap, and stop as soon as the
+ * requested page is complete, so most rooms are never looked at. Other orderings keep only
+ * the best offset + limit matches in a bounded heap. For a stay, the hotel's inventory
+ * bounds how many rooms of each type can be free, so a type is dropped from the walk
+ * once that many free rooms have been seen, and sold-out types are never walked.
+ *
+ * Floors follow the room numbering: room 214 is on floor 2.
+ */
+public class RoomSearch {
+
+    /**
+     * Result orderings.
+     */
+    public enum Order {
+        PRICE_ASC,
+        PRICE_DESC,
+        ROOM_NUMBER
+    }
+
+    private final Hotel hotel;
+    private Room.roomType type;
+    private double minPrice = 0;
+    private double maxPrice = Double.MAX_VALUE;
+    private int minNumber = Integer.MIN_VALUE;
+    private int maxNumber = Integer.MAX_VALUE;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private Order order = Order.PRICE_ASC;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Starts a search over a hotel's rooms. Use {@link Hotel#search()}.
+     *
+     * @param hotel The hotel to search.
+     */
+    RoomSearch(Hotel hotel) {
+        this.hotel = hotel;
+    }
+
+    /**
+     * Restricts the search to one room type.
+     *
+     * @param type The room type.
+     * @return This search.
+     */
+    public RoomSearch type(Room.roomType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Sets the lowest nightly price (inclusive).
+     *
+     * @param minPrice Minimum price per night.
+     * @return This search.
+     */
+    public RoomSearch minPrice(double minPrice) {
+        this.minPrice = minPrice;
+        return this;
+    }
+
+    /**
+     * Sets the highest nightly price (inclusive).
+     *
+     * @param maxPrice Maximum price per night.
+     * @return This search.
+     */
+    public RoomSearch maxPrice(double maxPrice) {
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    /**
+     * Restricts the search to a range of room numbers (inclusive).
+     *
+     * @param from Lowest room number.
+     * @param to   Highest room number.
+     * @return This search.
+     */
+    public RoomSearch roomNumbers(int from, int to) {
+        this.minNumber = from;
+        this.maxNumber = to;
+        return this;
+    }
+
+    /**
+     * Restricts the search to one floor.
+     *
+     * @param floor The floor, e.g. 2 for rooms 200-299.
+     * @return This search.
+     */
+    public RoomSearch floor(int floor) {
+        return roomNumbers(floor * 100, floor * 100 + 99);
+    }
+
+    /**
+     * Only returns rooms that are free for a stay. Without a stay, all rooms in
+     * service are returned.
+     *
+     * @param checkIn  Check-in date.
+     * @param checkOut Check-out date.
+     * @return This search.
+     */
+    public RoomSearch stay(LocalDate checkIn, LocalDate checkOut) {
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        return this;
+    }
+
+    /**
+     * Sets the result ordering; the default is cheapest first.
+     *
+     * @param order The ordering.
+     * @return This search.
+     */
+    public RoomSearch orderBy(Order order) {
+        this.order = order;
+        return this;
+    }
+
+    /**
+     * Skips the first matches, for pagination.
+     *
+     * @param offset Number of matches to skip.
+     * @return This search.
+     */
+    public RoomSearch offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of rooms returned.
+     *
+     * @param limit Page size.
+     * @return This search.
+     */
+    public RoomSearch limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return One page of matching rooms, in the requested order.
+     */
+    public List<Room> execute() {
+        synchronized (hotel) {
+            return order == Order.ROOM_NUMBER ? byRoomNumber() : byPrice(order == Order.PRICE_DESC);
+        }
+    }
+
+    /**
+     * Merges the per-type price lists lazily and stops once the page is full.
+     */
+    private List<Room> byPrice(boolean descending) {
+        Comparator<Room> priceOrder = Comparator.comparingDouble(Room::getPricePerNight)
+                .thenComparingInt(Room::getRoomNumber);
+        if (descending) {
+            priceOrder = priceOrder.reversed();
+        }
+
+        // One cursor per type list: {list index, position in list}
+        List<List<Room>> lists = new ArrayList<>();
+        List<Integer> freeLeft = new ArrayList<>();
+        for (Room.roomType t : Room.roomType.values()) {
+            int free = countFree(t);
+            if ((type == null || type == t) && free > 0) {
+                List<Room> sorted = hotel.roomsByPrice(t);
+                if (descending) {
+                    sorted = reversedView(sorted);
+                }
+                lists.add(sorted);
+                freeLeft.add(free);
+            }
+        }
+        Comparator<int[]> headOrder = Comparator.comparing(c -> lists.get(c[0]).get(c[1]), priceOrder);
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, lists.size()), headOrder);
+        for (int i = 0; i < lists.size(); i++) {
+            int start = descending ? firstAtMost(lists.get(i), maxPrice) : firstAtLeast(lists.get(i), minPrice);
+            if (start < lists.get(i).size()) {
+                heads.add(new int[]{i, start});
+            }
+        }
+
+        List<Room> page = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            int[] cursor = heads.poll();
+            List<Room> list = lists.get(cursor[0]);
+            Room room = list.get(cursor[1]);
+            double price = room.getPricePerNight();
+            if (descending ? price < minPrice : price > maxPrice) {
+                continue; // This list has left the price range
+            }
+            if (isFree(room)) {
+                freeLeft.set(cursor[0], freeLeft.get(cursor[0]) - 1);
+                if (inNumberRange(room)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        page.add(room);
+                    }
+                }
+            }
+            if (++cursor[1] < list.size() && freeLeft.get(cursor[0]) > 0) {
+                heads.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Keeps the first offset + limit rooms by number in a bounded max-heap.
+     */
+    private List<Room> byRoomNumber() {
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        Comparator<Room> numberOrder = Comparator.comparingInt(Room::getRoomNumber);
+        PriorityQueue<Room> best = new PriorityQueue<>(numberOrder.reversed());
+        for (Room.roomType t : Room.roomType.values()) {
+            if ((type != null && type != t) || countFree(t) == 0) {
+                continue;
+            }
+            List<Room> sorted = hotel.roomsByPrice(t);
+            for (int i = firstAtLeast(sorted, minPrice); i < sorted.size(); i++) {
+                Room room = sorted.get(i);
+                if (room.getPricePerNight() > maxPrice) {
+                    break;
+                }
+                if (best.size() == keep && room.getRoomNumber() > best.peek().getRoomNumber()) {
+                    continue; // Cannot make the page; skip the availability check
+                }
+                if (inNumberRange(room) && isFree(room)) {
+                    best.add(room);
+                    if (best.size() > keep) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+
+        List<Room> sorted = new ArrayList<>(best);
+        sorted.sort(numberOrder);
+        return offset >= sorted.size() ? Collections.emptyList() : sorted.subList(offset, sorted.size());
+    }
+
+    private boolean inNumberRange(Room room) {
+        return room.getRoomNumber() >= minNumber && room.getRoomNumber() <= maxNumber;
+    }
+
+    /**
+     * Checks that the room is in service and, for a stay, not booked during it.
+     */
+    private boolean isFree(Room room) {
+        return room.isAvailable() && (checkIn == null || !hotel.isRoomBooked(checkIn, checkOut, room));
+    }
+
+    /**
+     * Upper bound on the free rooms of a type; without a stay, every room counts.
+     */
+    private int countFree(Room.roomType t) {
+        return checkIn == null ? Integer.MAX_VALUE : hotel.countFreeRooms(t, checkIn, checkOut);
+    }
+
+    /**
+     * Binary search for the first room priced at least the given amount in an ascending list.
+     */
+    private static int firstAtLeast(List<Room> ascending, double price) {
+        int low = 0;
+        int high = ascending.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ascending.get(mid).getPricePerNight() < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary search for the first room priced at most the given amount in a descending list.
+     */
+    private static int firstAtMost(List<Room> descending, double price) {
+        int low = 0;
+        int high = descending.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (descending.get(mid).getPricePerNight() > price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<Room> reversedView(List<Room> list) {
+        return new AbstractList<Room>() {
+            @Override
+            public Room get(int index) {
+                return list.get(list.size() - 1 - index);
+            }
+
+            @Override
+            public int size() {
+                return list.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.hrs.src;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * UiRefreshCoalescer - Turns bursts of hotel change events into at most one table refresh per frame
+ *
+ * Events only mark the rooms and/or bookings views as dirty. The first event of a burst
+ * schedules a single-shot Swing timer; when it fires on the EDT, each dirty view is rebuilt
+ * once, however many changes arrived in the meantime.
+ */
+public class UiRefreshCoalescer implements HotelListener {
+
+    // About one frame at 60 Hz
+    private static final int FRAME_MILLIS = 16;
+
+    private final Runnable refreshRooms;
+    private final Runnable refreshBookings;
+    private final AtomicBoolean roomsDirty = new AtomicBoolean();
+    private final AtomicBoolean bookingsDirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param refreshRooms    Rebuilds the rooms view; run on the EDT
+     * @param refreshBookings Rebuilds the bookings views; run on the EDT
+     */
+    public UiRefreshCoalescer(Runnable refreshRooms, Runnable refreshBookings) {
+        this.refreshRooms = refreshRooms;
+        this.refreshBookings = refreshBookings;
+        this.timer = new Timer(FRAME_MILLIS, e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Marks the views touched by the change as dirty and schedules a refresh if none is pending
+     */
+    @Override
+    public void onEvent(HotelEvent event) {
+        if (event.affectsAvailability()) {
+            roomsDirty.set(true);
+        }
+        if (event.getBookingId() != null) {
+            bookingsDirty.set(true);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(timer::restart);
+        }
+    }
+
+    /**
+     * Runs on the EDT once per frame with pending changes
+     */
+    private void flush() {
+        // Events arriving from here on schedule the next frame
+        scheduled.set(false);
+        if (roomsDirty.getAndSet(false)) {
+            refreshRooms.run();
+        }
+        if (bookingsDirty.getAndSet(false)) {
+            refreshBookings.run();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.hrs.src;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Holds booking requests that could not be served because no room was free,
+ * so they can be matched as soon as a cancellation frees a room.
+ *
+ * Requests are indexed by room type and then by check-in day. Matching a freed
+ * stretch of nights only looks at requests of the room's type that check in within
+ * that stretch, instead of rescanning the whole waitlist.
+ */
+public class Waitlist {
+
+    /**
+     * A waiting booking request.
+     */
+    public static class Request {
+        private final long sequence;
+        private final String guestName;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final Room.roomType type;
+        private final int priority;
+
+        private Request(long sequence, String guestName, LocalDate checkIn, LocalDate checkOut,
+                        Room.roomType type, int priority) {
+            this.sequence = sequence;
+            this.guestName = guestName;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.type = type;
+            this.priority = priority;
+        }
+
+        /**
+         * Gets the position of the request in arrival order.
+         *
+         * @return Arrival sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the guest name.
+         *
+         * @return The name of the guest.
+         */
+        public String getGuestName() {
+            return guestName;
+        }
+
+        /**
+         * Gets the requested check-in date.
+         *
+         * @return The check-in date.
+         */
+        public LocalDate getCheckIn() {
+            return checkIn;
+        }
+
+        /**
+         * Gets the requested check-out date.
+         *
+         * @return The check-out date.
+         */
+        public LocalDate getCheckOut() {
+            return checkOut;
+        }
+
+        /**
+         * Gets the requested room type.
+         *
+         * @return The room type.
+         */
+        public Room.roomType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the priority; higher values are served first.
+         *
+         * @return The priority.
+         */
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    // Higher priority first, then first come first served
+    private static final Comparator<Request> SERVE_ORDER =
+            Comparator.comparingInt(Request::getPriority).reversed().thenComparingLong(Request::getSequence);
+
+    // type -> check-in epoch day -> requests checking in that day
+    private final Map<Room.roomType, NavigableMap<Long, List<Request>>> index = new EnumMap<>(Room.roomType.class);
+    private long nextSequence;
+    private int size;
+
+    /**
+     * Adds a request to the waitlist.
+     *
+     * @param guestName Name of the guest.
+     * @param checkIn   Requested check-in date.
+     * @param checkOut  Requested check-out date.
+     * @param type      Requested room type.
+     * @param priority  Priority; higher values are served first.
+     * @return The queued request.
+     */
+    public Request add(String guestName, LocalDate checkIn, LocalDate checkOut, Room.roomType type, int priority) {
+        Request request = new Request(nextSequence++, guestName, checkIn, checkOut, type, priority);
+        index.computeIfAbsent(type, t -> new TreeMap<>())
+                .computeIfAbsent(checkIn.toEpochDay(), d -> new ArrayList<>())
+                .add(request);
+        size++;
+        return request;
+    }
+
+    /**
+     * Removes a request from the waitlist.
+     *
+     * @param request The request to remove.
+     * @return true if the request was waiting, false otherwise.
+     */
+    public boolean remove(Request request) {
+        NavigableMap<Long, List<Request>> byDay = index.get(request.getType());
+        if (byDay == null) {
+            return false;
+        }
+        long day = request.getCheckIn().toEpochDay();
+        List<Request> requests = byDay.get(day);
+        if (requests == null || !requests.remove(request)) {
+            return false;
+        }
+        if (requests.isEmpty()) {
+            byDay.remove(day);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the best waiting request for a room type whose stay fits entirely inside
+     * a stretch of free nights. The request stays queued; call {@link #remove(Request)}
+     * once it has been served.
+     *
+     * @param type     Room type that became free.
+     * @param freeFrom First free night.
+     * @param freeTo   Day after the last free night.
+     * @param canPlace Final check that the request can really be booked.
+     * @return The highest-priority, longest-waiting fitting request, or null if none fits.
+     */
+    public Request findMatch(Room.roomType type, LocalDate freeFrom, LocalDate freeTo, Predicate<Request> canPlace) {
+        NavigableMap<Long, List<Request>> byDay = index.get(type);
+        if (byDay == null || !freeFrom.isBefore(freeTo)) {
+            return null;
+        }
+
+        Request best = null;
+        for (List<Request> requests : byDay.subMap(freeFrom.toEpochDay(), true, freeTo.toEpochDay(), false).values()) {
+            for (Request request : requests) {
+                if (!request.getCheckOut().isAfter(freeTo)
+                        && (best == null || SERVE_ORDER.compare(request, best) < 0)
+                        && canPlace.test(request)) {
+                    best = request;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets all waiting requests in serving order.
+     *
+     * @return List of waiting requests.
+     */
+    public List<Request> getRequests() {
+        List<Request> all = new ArrayList<>(size);
+        for (NavigableMap<Long, List<Request>> byDay : index.values()) {
+            for (List<Request> requests : byDay.values()) {
+                all.addAll(requests);
+            }
+        }
+        all.sort(SERVE_ORDER);
+        return all;
+    }
+
+    /**
+     * Gets the number of waiting requests.
+     *
+     * @return Number of requests.
+     */
+    public int size() {
+        return size;
+    }
+}
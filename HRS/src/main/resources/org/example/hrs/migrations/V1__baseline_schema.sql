@@ -0,0 +1,22 @@
+-- Baseline schema: the rooms and bookings tables as the application has always used them.
+-- IF NOT EXISTS keeps this a no-op on databases that were created by hand.
+
+CREATE TABLE IF NOT EXISTS rooms (
+    room_number     INT          NOT NULL,
+    type            VARCHAR(16)  NOT NULL,
+    price_per_night DOUBLE       NOT NULL,
+    is_available    BOOLEAN      NOT NULL DEFAULT TRUE,
+    PRIMARY KEY (room_number)
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    booking_id     VARCHAR(32)  NOT NULL,
+    guest_name     VARCHAR(100) NOT NULL,
+    room_number    INT          NOT NULL,
+    check_in       DATE         NOT NULL,
+    check_out      DATE         NOT NULL,
+    status         VARCHAR(16)  NOT NULL,
+    payment_method VARCHAR(16),
+    payment_date   DATE,
+    PRIMARY KEY (booking_id)
+);
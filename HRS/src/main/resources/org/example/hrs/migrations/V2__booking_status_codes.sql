@@ -0,0 +1,13 @@
+-- Store booking status as a BookingStatus code instead of a free-form label.
+-- Legacy labels are rewritten to their codes before the column type changes.
+
+UPDATE bookings
+SET status = CASE LOWER(status)
+                 WHEN 'notconfirmed' THEN '0'
+                 WHEN 'confirmed' THEN '1'
+                 WHEN 'cancelled' THEN '4'
+                 ELSE '0'
+             END
+WHERE status NOT REGEXP '^[0-9]+$';
+
+ALTER TABLE bookings MODIFY status TINYINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Indexes behind availability checks, guest search and archival.
+-- Each index is only created if information_schema does not list it yet, so the
+-- script can be repeated after a failure partway through.
+
+-- Overlap checks: equality on room, range on dates
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_room_dates') = 0,
+    'CREATE INDEX idx_bookings_room_dates ON bookings (room_number, check_in, check_out)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Guest lookups
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_guest') = 0,
+    'CREATE INDEX idx_bookings_guest ON bookings (guest_name)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Archival scans for settled stays past the horizon
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_status_checkout') = 0,
+    'CREATE INDEX idx_bookings_status_checkout ON bookings (status, check_out)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
@@ -0,0 +1,20 @@
+-- History table for archived stays, range-partitioned by check-in month.
+-- It starts with a single catch-all partition; BookingArchiveDAO splits monthly
+-- partitions off it as data is archived.
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    booking_id     VARCHAR(32)  NOT NULL,
+    guest_name     VARCHAR(100) NOT NULL,
+    room_number    INT          NOT NULL,
+    check_in       DATE         NOT NULL,
+    check_out      DATE         NOT NULL,
+    status         TINYINT      NOT NULL,
+    payment_method VARCHAR(16),
+    payment_date   DATE,
+    PRIMARY KEY (booking_id, check_in),
+    KEY idx_archive_guest (guest_name),
+    KEY idx_archive_room (room_number, check_in)
+)
+PARTITION BY RANGE COLUMNS (check_in) (
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,64 @@
+-- Multi-property support: every room and booking belongs to a property (hotel).
+-- Existing data becomes property 1. Room numbers are unique per property only.
+-- Each step checks information_schema first, so the script can be repeated after a
+-- failure partway through; indexes are rebuilt only while they lack property_id.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'rooms' AND column_name = 'property_id') = 0,
+    'ALTER TABLE rooms ADD COLUMN property_id INT NOT NULL DEFAULT 1 FIRST', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'rooms' AND index_name = 'PRIMARY' AND column_name = 'property_id') = 0,
+    'ALTER TABLE rooms DROP PRIMARY KEY, ADD PRIMARY KEY (property_id, room_number)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND column_name = 'property_id') = 0,
+    'ALTER TABLE bookings ADD COLUMN property_id INT NOT NULL DEFAULT 1 AFTER guest_name', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_room_dates') > 0
+        AND (SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_room_dates' AND column_name = 'property_id') = 0,
+    'DROP INDEX idx_bookings_room_dates ON bookings', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_room_dates') = 0,
+    'CREATE INDEX idx_bookings_room_dates ON bookings (property_id, room_number, check_in, check_out)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND column_name = 'property_id') = 0,
+    'ALTER TABLE bookings_archive ADD COLUMN property_id INT NOT NULL DEFAULT 1 AFTER guest_name', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND index_name = 'idx_archive_room') > 0
+        AND (SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND index_name = 'idx_archive_room' AND column_name = 'property_id') = 0,
+    'DROP INDEX idx_archive_room ON bookings_archive', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND index_name = 'idx_archive_room') = 0,
+    'CREATE INDEX idx_archive_room ON bookings_archive (property_id, room_number, check_in)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
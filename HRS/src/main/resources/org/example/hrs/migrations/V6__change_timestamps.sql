@@ -0,0 +1,25 @@
+-- Change timestamps so that clients holding a local snapshot can fetch only what changed.
+-- MySQL only moves ON UPDATE timestamps when a column value actually changes.
+-- Each step checks information_schema first, so the script can be repeated after a
+-- failure partway through.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'rooms' AND column_name = 'updated_at') = 0,
+    'ALTER TABLE rooms ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND column_name = 'updated_at') = 0,
+    'ALTER TABLE bookings ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_changes') = 0,
+    'CREATE INDEX idx_bookings_changes ON bookings (property_id, updated_at)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
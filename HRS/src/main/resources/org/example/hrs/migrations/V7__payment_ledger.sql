@@ -0,0 +1,18 @@
+-- Append-only ledger of charges and refunds. Rows are never updated or deleted.
+-- Amounts are signed cents: charges are positive, refunds negative.
+-- The idempotency key is unique, so a retried write of the same payment is ignored.
+
+CREATE TABLE IF NOT EXISTS payment_ledger (
+    entry_id        BIGINT       NOT NULL AUTO_INCREMENT,
+    idempotency_key VARCHAR(96)  NOT NULL,
+    booking_id      VARCHAR(32)  NOT NULL,
+    property_id     INT          NOT NULL,
+    entry_type      TINYINT      NOT NULL,
+    amount_cents    BIGINT       NOT NULL,
+    payment_method  VARCHAR(16),
+    created_at      TIMESTAMP(3) NOT NULL,
+    PRIMARY KEY (entry_id),
+    UNIQUE KEY uk_payment_ledger_key (idempotency_key),
+    INDEX idx_payment_ledger_booking (booking_id),
+    INDEX idx_payment_ledger_property (property_id, created_at)
+);
@@ -0,0 +1,5 @@
+-- rooms.is_available now only says whether a room is in service; which nights are free
+-- follows from the bookings. Earlier versions cleared it while a room had any booking,
+-- so every room is put back in service.
+
+UPDATE rooms SET is_available = TRUE WHERE is_available = FALSE;
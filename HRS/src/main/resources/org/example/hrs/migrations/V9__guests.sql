@@ -0,0 +1,59 @@
+-- Guests as their own rows, so that repeat guests are stored once and found by index.
+-- guest_key is the normalized name (see Guest.normalize); the column's default
+-- accent- and case-insensitive collation also folds spellings that differ that way.
+-- guest_name stays on bookings for older clients and reports.
+-- MySQL commits DDL as it goes and has no ADD COLUMN IF NOT EXISTS, so columns and
+-- indexes are only added when information_schema does not list them yet; that way a
+-- run that failed halfway can simply be repeated.
+
+CREATE TABLE IF NOT EXISTS guests (
+    guest_id   BIGINT       NOT NULL AUTO_INCREMENT,
+    guest_key  VARCHAR(100) NOT NULL,
+    full_name  VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (guest_id),
+    UNIQUE KEY uk_guests_key (guest_key)
+);
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND column_name = 'guest_id') = 0,
+    'ALTER TABLE bookings ADD COLUMN guest_id BIGINT NULL AFTER guest_name', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- idx_bookings_guest (V3) stays on guest_name for name searches
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings' AND index_name = 'idx_bookings_guest_id') = 0,
+    'CREATE INDEX idx_bookings_guest_id ON bookings (guest_id, status)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND column_name = 'guest_id') = 0,
+    'ALTER TABLE bookings_archive ADD COLUMN guest_id BIGINT NULL AFTER guest_name', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'bookings_archive' AND index_name = 'idx_archive_guest_id') = 0,
+    'CREATE INDEX idx_archive_guest_id ON bookings_archive (guest_id, status)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Backfill: one guest per distinct key over live and archived bookings
+INSERT IGNORE INTO guests (guest_key, full_name)
+SELECT REGEXP_REPLACE(LOWER(TRIM(guest_name)), '[[:space:]]+', ' '), MIN(guest_name)
+FROM (SELECT guest_name FROM bookings UNION ALL SELECT guest_name FROM bookings_archive) names
+GROUP BY REGEXP_REPLACE(LOWER(TRIM(guest_name)), '[[:space:]]+', ' ');
+
+UPDATE bookings b JOIN guests g
+    ON g.guest_key = REGEXP_REPLACE(LOWER(TRIM(b.guest_name)), '[[:space:]]+', ' ')
+SET b.guest_id = g.guest_id;
+
+UPDATE bookings_archive a JOIN guests g
+    ON g.guest_key = REGEXP_REPLACE(LOWER(TRIM(a.guest_name)), '[[:space:]]+', ' ')
+SET a.guest_id = g.guest_id;